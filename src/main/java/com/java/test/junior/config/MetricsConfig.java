@@ -0,0 +1,17 @@
+package com.java.test.junior.config;
+
+import com.java.test.junior.util.StatementMetricsInterceptor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * Picked up by the MyBatis auto-configuration, which adds every interceptor bean to the session factory.
+     */
+    @Bean
+    public StatementMetricsInterceptor statementMetricsInterceptor() {
+        return new StatementMetricsInterceptor();
+    }
+}
@@ -1,14 +1,27 @@
 package com.java.test.junior.config;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.java.test.junior.security.AuthenticationCache;
+import com.java.test.junior.security.CachingAuthenticationProvider;
+import com.java.test.junior.security.RateLimitFilter;
+import com.java.test.junior.security.RateLimiter;
+import com.java.test.junior.security.TimedPasswordEncoder;
+import com.java.test.junior.security.TokenAuthenticationFilter;
+import com.java.test.junior.security.TokenService;
+import com.java.test.junior.service.CustomUserDetailsService;
 import com.java.test.junior.util.CustomAccessDeniedHandler;
 import com.java.test.junior.util.CustomAuthEntryPoint;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
 
 @Configuration
 @EnableWebSecurity
@@ -23,7 +36,8 @@ public class SecurityConfig {
     };
 
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain securityFilterChain(HttpSecurity http, TokenService tokenService,
+                                                   RateLimiter rateLimiter, ObjectMapper objectMapper) throws Exception {
         http
                 .authorizeRequests()
                 .antMatchers("/api/auth/**").permitAll()
@@ -31,6 +45,8 @@ public class SecurityConfig {
                 .antMatchers("/api/forgot-password", "/api/reset-password").permitAll()
                 .antMatchers("/api/products/**").hasAuthority("USER")
                 .antMatchers("/api/admin/**").hasAuthority("ADMIN")
+                .antMatchers("/actuator/health").permitAll()
+                .antMatchers("/actuator/**").hasAuthority("ADMIN")
                 .anyRequest().authenticated()
                 .and()
                 .exceptionHandling()
@@ -39,13 +55,30 @@ public class SecurityConfig {
                 .and()
                 .httpBasic()
                 .and()
+                .addFilterBefore(new RateLimitFilter(rateLimiter, objectMapper), BasicAuthenticationFilter.class)
+                .addFilterBefore(new TokenAuthenticationFilter(tokenService), BasicAuthenticationFilter.class)
+                .sessionManagement().sessionCreationPolicy(SessionCreationPolicy.STATELESS)
+                .and()
                 .csrf().disable();
 
         return http.build();
     }
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public AuthenticationProvider authenticationProvider(CustomUserDetailsService userDetailsService,
+                                                         AuthenticationCache authenticationCache,
+                                                         PasswordEncoder passwordEncoder) {
+        DaoAuthenticationProvider daoAuthenticationProvider = new DaoAuthenticationProvider();
+        daoAuthenticationProvider.setUserDetailsService(userDetailsService);
+        daoAuthenticationProvider.setPasswordEncoder(passwordEncoder);
+        return new CachingAuthenticationProvider(daoAuthenticationProvider, authenticationCache);
+    }
+
+    /**
+     * Declared as {@link TimedPasswordEncoder} so the metrics registry finds it as a binder before it exists.
+     */
+    @Bean
+    public TimedPasswordEncoder passwordEncoder() {
+        return new TimedPasswordEncoder(new BCryptPasswordEncoder());
     }
 }
@@ -13,6 +13,7 @@ import org.springframework.context.annotation.Configuration;
 public class SwaggerConfig {
 
     private static final String SECURITY_SCHEME_NAME = "basicAuth";
+    private static final String BEARER_SCHEME_NAME = "bearerAuth";
 
     @Bean
     public GroupedOpenApi publicApi() {
@@ -30,12 +31,19 @@ public class SwaggerConfig {
                         .version("1.0")
                         .description("API documentation"))
                 .addSecurityItem(new SecurityRequirement().addList(SECURITY_SCHEME_NAME))
+                .addSecurityItem(new SecurityRequirement().addList(BEARER_SCHEME_NAME))
                 .components(new Components()
                         .addSecuritySchemes(SECURITY_SCHEME_NAME,
                                 new SecurityScheme()
                                         .name(SECURITY_SCHEME_NAME)
                                         .type(SecurityScheme.Type.HTTP)
                                         .scheme("basic")
+                                        .in(SecurityScheme.In.HEADER))
+                        .addSecuritySchemes(BEARER_SCHEME_NAME,
+                                new SecurityScheme()
+                                        .name(BEARER_SCHEME_NAME)
+                                        .type(SecurityScheme.Type.HTTP)
+                                        .scheme("bearer")
                                         .in(SecurityScheme.In.HEADER)));
     }
 }
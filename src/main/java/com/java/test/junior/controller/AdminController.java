@@ -1,25 +1,101 @@
 package com.java.test.junior.controller;
 
 import com.java.test.junior.model.Response;
+import com.java.test.junior.service.AuthService;
+import com.java.test.junior.service.EmailService;
+import com.java.test.junior.service.ImportJobService;
+import com.java.test.junior.service.PasswordResetTokenService;
+import com.java.test.junior.service.ProductExportService;
 import com.java.test.junior.service.ProductService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.Resource;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.web.bind.annotation.PostMapping;
-import org.springframework.web.bind.annotation.RequestMapping;
-import org.springframework.web.bind.annotation.RequestParam;
-import org.springframework.web.bind.annotation.RestController;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.validation.constraints.DecimalMin;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.Pattern;
 import java.io.IOException;
-import java.sql.SQLException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
 
 @RestController
 @RequestMapping("/api/admin")
+@Validated
 @RequiredArgsConstructor
 public class AdminController {
+    private final ImportJobService importJobService;
+    private final ProductExportService productExportService;
     private final ProductService productService;
+    private final EmailService emailService;
+    private final PasswordResetTokenService passwordResetTokenService;
+    private final AuthService authService;
 
     @PostMapping("/loading/products")
-    public ResponseEntity<Response> loadProducts(@RequestParam String path) throws SQLException, IOException {
-        return productService.loadProductsFromCsv(path);
+    public ResponseEntity<Response> loadProducts(@RequestParam String path,
+                                                 @RequestParam(required = false) Integer parallelism,
+                                                 @RequestParam(defaultValue = "insert") @Pattern(regexp = "insert|upsert", message = "Mode must be one of insert, upsert") String mode,
+                                                 @RequestParam(required = false) @Min(value = 0, message = "Max errors must be non-negative") Long maxErrors)
+            throws IOException {
+        return importJobService.startProductImport(path, parallelism, mode, maxErrors);
+    }
+
+    @PostMapping(value = "/loading/products/upload", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<Response> uploadProducts(HttpServletRequest request,
+                                                   @RequestParam(required = false) Integer parallelism,
+                                                   @RequestParam(defaultValue = "insert") @Pattern(regexp = "insert|upsert", message = "Mode must be one of insert, upsert") String mode,
+                                                   @RequestParam(required = false) @Min(value = 0, message = "Max errors must be non-negative") Long maxErrors)
+            throws IOException {
+        return importJobService.uploadProductImport(request, parallelism, mode, maxErrors);
+    }
+
+    @GetMapping("/loading/jobs/{id}")
+    public ResponseEntity<Response> getImportJob(@PathVariable Long id) {
+        return importJobService.findJob(id);
+    }
+
+    @GetMapping("/loading/jobs/{id}/rejects")
+    public ResponseEntity<Resource> downloadImportRejects(@PathVariable Long id) {
+        return importJobService.downloadRejects(id);
+    }
+
+    @PostMapping("/loading/jobs/{id}/cancel")
+    public ResponseEntity<Response> cancelImportJob(@PathVariable Long id) {
+        return importJobService.cancelJob(id);
+    }
+
+    @GetMapping("/export/products")
+    public ResponseEntity<StreamingResponseBody> exportProducts(
+            @RequestParam(required = false) @Min(value = 1, message = "User id must be positive") Long userId,
+            @RequestParam(required = false) @DecimalMin(value = "0", message = "Min price must be non-negative") BigDecimal minPrice,
+            @RequestParam(required = false) @DecimalMin(value = "0", message = "Max price must be non-negative") BigDecimal maxPrice,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime updatedSince,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        return productExportService.exportProducts(userId, minPrice, maxPrice, updatedSince, gzip);
+    }
+
+    @GetMapping("/cache/products")
+    public ResponseEntity<Response> productCacheStats() {
+        return productService.cacheStats();
+    }
+
+    @GetMapping("/email/outbox")
+    public ResponseEntity<Response> emailOutboxStats() {
+        return emailService.outboxStats();
+    }
+
+    @GetMapping("/password-reset-tokens")
+    public ResponseEntity<Response> passwordResetTokenStats() {
+        return passwordResetTokenService.tokenStats();
+    }
+
+    @GetMapping("/rate-limit")
+    public ResponseEntity<Response> rateLimitStats() {
+        return authService.rateLimitStats();
     }
 }
@@ -1,7 +1,10 @@
 package com.java.test.junior.controller;
 
+import com.java.test.junior.model.LoginDTO;
+import com.java.test.junior.model.RefreshTokenDTO;
 import com.java.test.junior.model.Response;
 import com.java.test.junior.model.UserDTO;
+import com.java.test.junior.service.AuthService;
 import com.java.test.junior.service.UserService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
@@ -14,9 +17,20 @@ import javax.validation.Valid;
 @RequestMapping("/api/auth")
 public class AuthController {
     private final UserService userService;
+    private final AuthService authService;
 
     @PostMapping("/register")
     public ResponseEntity<Response> register(@Valid @RequestBody UserDTO userDTO) {
         return userService.save(userDTO);
     }
+
+    @PostMapping("/login")
+    public ResponseEntity<Response> login(@Valid @RequestBody LoginDTO loginDTO) {
+        return authService.login(loginDTO);
+    }
+
+    @PostMapping("/refresh")
+    public ResponseEntity<Response> refresh(@Valid @RequestBody RefreshTokenDTO refreshTokenDTO) {
+        return authService.refresh(refreshTokenDTO.getRefreshToken());
+    }
 }
\ No newline at end of file
@@ -122,6 +122,18 @@ public class GlobalExceptionHandler {
                 .body(getErrorResponse("CSV file not found at the specified location"));
     }
 
+    @ExceptionHandler(BadRequestException.class)
+    public ResponseEntity<Response> handleBadRequestException(BadRequestException ex) {
+        log.warning("Bad request: " + ex.getMessage());
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(getErrorResponse(ex.getMessage()));
+    }
+
+    @ExceptionHandler(ServiceUnavailableException.class)
+    public ResponseEntity<Response> handleServiceUnavailableException(ServiceUnavailableException ex) {
+        log.warning("Service unavailable: " + ex.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(getErrorResponse(ex.getMessage()));
+    }
+
     @ExceptionHandler(TokenExpired.class)
     public ResponseEntity<Response> handleTokenExpiredException(TokenExpired ex) {
         log.warning("Token error: " + ex.getMessage());
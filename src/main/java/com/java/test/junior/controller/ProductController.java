@@ -5,17 +5,30 @@ package com.java.test.junior.controller;
 
 import com.java.test.junior.model.PaginatedResponse;
 import com.java.test.junior.model.ProductDTO;
+import com.java.test.junior.model.ProductUpdateDTO;
 import com.java.test.junior.model.Response;
+import com.java.test.junior.service.ProductBatchService;
+import com.java.test.junior.service.ProductLikeService;
 import com.java.test.junior.service.ProductService;
+import com.java.test.junior.service.ProductSuggestService;
 import com.java.test.junior.service.UserProductService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.validation.Valid;
 import javax.validation.constraints.Max;
 import javax.validation.constraints.Min;
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Pattern;
+import javax.validation.constraints.Size;
+import java.util.List;
 
 @RestController
 @RequestMapping("/api/products")
@@ -24,15 +37,37 @@ import javax.validation.constraints.Min;
 public class ProductController {
     private final ProductService productService;
     private final UserProductService userProductService;
+    private final ProductSuggestService productSuggestService;
+    private final ProductBatchService productBatchService;
+    private final ProductLikeService productLikeService;
 
     @PostMapping
     public ResponseEntity<Response> createProduct(@Valid @RequestBody ProductDTO productDTO) {
         return productService.createProduct(productDTO);
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<Response> createProducts(
+            @RequestBody @NotEmpty(message = "Batch must not be empty") @Size(max = 5000, message = "Batch cannot exceed 5000 items") List<@Valid ProductDTO> productDTOs) {
+        return productBatchService.createProducts(productDTOs);
+    }
+
+    @PutMapping("/batch")
+    public ResponseEntity<Response> modifyProducts(
+            @RequestBody @NotEmpty(message = "Batch must not be empty") @Size(max = 5000, message = "Batch cannot exceed 5000 items") List<@Valid ProductUpdateDTO> productDTOs) {
+        return productBatchService.updateProducts(productDTOs);
+    }
+
+    @PostMapping("/batch/delete")
+    public ResponseEntity<Response> deleteProducts(
+            @RequestBody @NotEmpty(message = "Batch must not be empty") @Size(max = 5000, message = "Batch cannot exceed 5000 items") List<@NotNull @Min(1) Long> ids) {
+        return productBatchService.deleteProducts(ids);
+    }
+
     @GetMapping("/{id}")
-    public ResponseEntity<Response> findProductById(@PathVariable("id") @Min(1) Long id) {
-        return productService.findProduct(id);
+    public ResponseEntity<Response> findProductById(@PathVariable("id") @Min(1) Long id,
+                                                    @RequestHeader HttpHeaders requestHeaders) {
+        return productService.findProduct(id, requestHeaders);
     }
 
     @PutMapping("/{id}")
@@ -49,8 +84,41 @@ public class ProductController {
     @GetMapping
     public ResponseEntity<PaginatedResponse> findAll(
             @RequestParam(defaultValue = "1") @Min(value = 1, message = "Page must be at least 1") int page,
+            @RequestParam(defaultValue = "10") @Min(value = 1, message = "Page size must be at least 1") @Max(value = 100, message = "Page size cannot exceed 100") int pageSize,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "id") @Pattern(regexp = "id|name|price|createdAt", message = "Sort must be one of id, name, price, createdAt") String sort,
+            @RequestParam(defaultValue = "none") @Pattern(regexp = "none|exact|estimate", message = "Count must be one of none, exact, estimate") String count,
+            @RequestHeader HttpHeaders requestHeaders) {
+        if (cursor != null) {
+            return productService.findAllByCursor(cursor, sort, pageSize, count, requestHeaders);
+        }
+        return productService.findAll(page, pageSize, count, requestHeaders);
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAll() {
+        return productService.streamAll();
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<PaginatedResponse> search(
+            @RequestParam("q") @NotBlank(message = "Search query is required") @Size(max = 255, message = "Search query cannot exceed 255 characters") String query,
+            @RequestParam(required = false) String cursor,
             @RequestParam(defaultValue = "10") @Min(value = 1, message = "Page size must be at least 1") @Max(value = 100, message = "Page size cannot exceed 100") int pageSize) {
-        return productService.findAll(page, pageSize);
+        return productService.search(query, cursor, pageSize);
+    }
+
+    @GetMapping("/suggest")
+    public ResponseEntity<Response> suggest(
+            @RequestParam @NotBlank(message = "Prefix is required") String prefix,
+            @RequestParam(defaultValue = "10") @Min(value = 1, message = "Limit must be at least 1") @Max(value = 50, message = "Limit cannot exceed 50") int limit) {
+        return productSuggestService.suggest(prefix, limit);
+    }
+
+    @GetMapping("/top-liked")
+    public ResponseEntity<Response> findTopLiked(
+            @RequestParam(defaultValue = "10") @Min(value = 1, message = "Limit must be at least 1") @Max(value = 100, message = "Limit cannot exceed 100") int limit) {
+        return productLikeService.findTopLiked(limit);
     }
 
     @GetMapping("/name/{name}")
@@ -58,6 +126,11 @@ public class ProductController {
         return productService.findByName(name);
     }
 
+    @GetMapping("/like/{id}")
+    public ResponseEntity<Response> findLikeByProductId(@PathVariable("id") @Min(1) Long productId) {
+        return userProductService.findLike(productId);
+    }
+
     @PostMapping("/like/{id}")
     public ResponseEntity<Response> likeProductById(@PathVariable("id") Long productId) {
         return userProductService.like(productId);
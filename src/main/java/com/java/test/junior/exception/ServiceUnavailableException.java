@@ -0,0 +1,7 @@
+package com.java.test.junior.exception;
+
+public class ServiceUnavailableException extends RuntimeException {
+    public ServiceUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,18 @@
+package com.java.test.junior.mapper;
+
+import com.java.test.junior.model.TokenRevocation;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Mapper
+public interface AuthTokenMapper {
+    int markRefreshTokenUsed(@Param("tokenId") String tokenId, @Param("username") String username,
+                             @Param("expiresAt") LocalDateTime expiresAt);
+    int purgeUsedRefreshTokens(@Param("limit") int limit);
+    void saveRevocation(@Param("username") String username, @Param("revokedAt") long revokedAt);
+    List<TokenRevocation> findRevocationsSince(@Param("since") long since);
+    int purgeRevocations(@Param("before") long before, @Param("limit") int limit);
+}
@@ -0,0 +1,25 @@
+package com.java.test.junior.mapper;
+
+import com.java.test.junior.model.EmailOutboxStats;
+import com.java.test.junior.model.OutboxEmail;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
+
+@Mapper
+public interface EmailOutboxMapper {
+    void save(OutboxEmail email);
+
+    List<OutboxEmail> claimDue(@Param("limit") int limit, @Param("leaseSeconds") long leaseSeconds);
+
+    void markSent(@Param("ids") List<Long> ids);
+
+    void reschedule(@Param("id") Long id, @Param("delaySeconds") long delaySeconds, @Param("error") String error);
+
+    void markFailed(@Param("id") Long id, @Param("error") String error);
+
+    int purgeFinished(@Param("retentionHours") int retentionHours, @Param("limit") int limit);
+
+    EmailOutboxStats findStats();
+}
@@ -0,0 +1,23 @@
+package com.java.test.junior.mapper;
+
+import com.java.test.junior.model.ImportJob;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+@Mapper
+public interface ImportJobMapper {
+    void save(ImportJob importJob);
+
+    ImportJob findById(@Param("id") Long id);
+
+    void markStarted(@Param("id") Long id);
+
+    void updateProgress(@Param("id") Long id, @Param("bytesProcessed") long bytesProcessed,
+                        @Param("rowsProcessed") long rowsProcessed, @Param("rowsRejected") long rowsRejected);
+
+    void finish(@Param("id") Long id, @Param("status") String status, @Param("bytesProcessed") long bytesProcessed,
+                @Param("rowsProcessed") long rowsProcessed, @Param("rowsRejected") long rowsRejected,
+                @Param("errorMessage") String errorMessage);
+
+    int failExpired(@Param("errorMessage") String errorMessage, @Param("leaseSeconds") long leaseSeconds);
+}
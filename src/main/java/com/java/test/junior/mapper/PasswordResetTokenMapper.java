@@ -1,11 +1,15 @@
 package com.java.test.junior.mapper;
 
 import com.java.test.junior.model.PasswordResetToken;
+import com.java.test.junior.model.TokenPurgeStats;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
 
 @Mapper
 public interface PasswordResetTokenMapper {
     void save(PasswordResetToken token);
     PasswordResetToken findByToken(String token);
     void deleteByToken(String token);
+    int purgeExpired(@Param("limit") int limit);
+    TokenPurgeStats countTokens();
 }
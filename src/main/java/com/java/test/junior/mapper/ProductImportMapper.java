@@ -0,0 +1,19 @@
+package com.java.test.junior.mapper;
+
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+/**
+ * Staging tables for bulk imports. Table names are generated by the import service, never taken
+ * from user input, which is why they are substituted directly into the statements.
+ */
+@Mapper
+public interface ProductImportMapper {
+    void createStagingTable(@Param("table") String table);
+
+    int insertFromStaging(@Param("table") String table);
+
+    int upsertFromStaging(@Param("table") String table);
+
+    void dropStagingTable(@Param("table") String table);
+}
@@ -0,0 +1,14 @@
+package com.java.test.junior.mapper;
+
+import com.java.test.junior.model.ProductLikeCount;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
+
+@Mapper
+public interface ProductLikeMapper {
+    List<ProductLikeCount> foldDeltas();
+
+    List<ProductLikeCount> findTopLiked(@Param("limit") int limit);
+}
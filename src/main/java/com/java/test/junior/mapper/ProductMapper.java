@@ -1,8 +1,12 @@
 package com.java.test.junior.mapper;
 
 import com.java.test.junior.model.Product;
+import com.java.test.junior.model.ProductCursor;
+import com.java.test.junior.model.ProductSearchHit;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.session.ResultHandler;
 
 import java.util.List;
 
@@ -12,13 +16,40 @@ public interface ProductMapper {
 
     void save(Product product);
 
+    List<Product> saveAll(@Param("products") List<Product> products);
+
+    List<Product> findAllByIds(@Param("ids") List<Long> ids);
+
     void update(Product product);
 
+    List<Product> findAllByNames(@Param("names") List<String> names);
+
+    void releaseNames(@Param("ids") List<Long> ids, @Param("userId") Long userId);
+
+    List<Long> updateAll(@Param("products") List<Product> products, @Param("userId") Long userId);
+
+    List<Long> deleteAllByIds(@Param("ids") List<Long> ids, @Param("userId") Long userId);
+
     void delete(@Param("id") Long id);
 
     Product findByName(@Param("name") String name);
 
     List<Product> findAll(@Param("offset") int offset, @Param("pageSize") int pageSize);
 
-    void deleteAllByUserId(Long id);
+    List<Product> findAllAfter(@Param("cursor") ProductCursor cursor, @Param("limit") int limit);
+
+    List<ProductSearchHit> search(@Param("query") String query, @Param("afterRank") Float afterRank,
+                                  @Param("afterId") Long afterId, @Param("limit") int limit);
+
+    void scanNames(ResultHandler<String> handler);
+
+    Cursor<Product> streamAll();
+
+    Product findVersionById(@Param("id") Long id);
+
+    long countAll();
+
+    Long estimateCount();
+
+    List<String> deleteAllByUserId(Long id);
 }
\ No newline at end of file
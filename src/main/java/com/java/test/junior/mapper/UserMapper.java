@@ -5,6 +5,8 @@ import org.apache.ibatis.annotations.Mapper;
 
 @Mapper
 public interface UserMapper {
+    User findById(Long id);
+
     User findByUsername(String username);
 
     void save(User user);
@@ -1,7 +1,11 @@
 package com.java.test.junior.mapper;
 
+import com.java.test.junior.model.PendingLike;
 import com.java.test.junior.model.UserProduct;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
 
 @Mapper
 public interface UserProductMapper {
@@ -11,5 +15,13 @@ public interface UserProductMapper {
 
     UserProduct findById(Long userId, Long productId);
 
+    boolean toggle(@Param("userId") Long userId, @Param("productId") Long productId, @Param("slot") int slot);
+
+    Boolean findLikeState(@Param("userId") Long userId, @Param("productId") Long productId);
+
+    void applyAll(@Param("likes") List<PendingLike> likes, @Param("slot") int slot);
+
     void deleteByProductId(Long productId);
+
+    void deleteByProductIds(@Param("productIds") List<Long> productIds, @Param("userId") Long userId);
 }
@@ -0,0 +1,17 @@
+package com.java.test.junior.model;
+
+import lombok.*;
+
+@Getter
+@Setter
+@ToString
+@NoArgsConstructor
+@AllArgsConstructor
+public class EmailOutboxStats {
+    private long pending;
+    private long failed;
+    private Long oldestPendingSeconds;
+    private long sent;
+    private long failedAttempts;
+    private long givenUp;
+}
@@ -0,0 +1,36 @@
+package com.java.test.junior.model;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@ToString
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportJob {
+    public static final String PENDING = "PENDING";
+    public static final String RUNNING = "RUNNING";
+    public static final String COMPLETED = "COMPLETED";
+    public static final String FAILED = "FAILED";
+    public static final String CANCELLED = "CANCELLED";
+
+    private Long id;
+    private String source;
+    private String mode;
+    private String status;
+    private Long totalBytes;
+    private long bytesProcessed;
+    private long rowsProcessed;
+    private long rowsRejected;
+    private Long maxErrors;
+    private String errorMessage;
+    private LocalDateTime createdAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private LocalDateTime updatedAt;
+    private Double rowsPerSecond;
+    private Double bytesPerSecond;
+    private Long etaSeconds;
+}
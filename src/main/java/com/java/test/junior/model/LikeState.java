@@ -0,0 +1,13 @@
+package com.java.test.junior.model;
+
+import lombok.*;
+
+@Getter
+@Setter
+@ToString
+@NoArgsConstructor
+@AllArgsConstructor
+public class LikeState {
+    private Long productId;
+    private boolean liked;
+}
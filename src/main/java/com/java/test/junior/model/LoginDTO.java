@@ -0,0 +1,17 @@
+package com.java.test.junior.model;
+
+import lombok.*;
+
+import javax.validation.constraints.NotBlank;
+
+@Getter
+@Setter
+@ToString(exclude = "password")
+@NoArgsConstructor
+@AllArgsConstructor
+public class LoginDTO {
+    @NotBlank(message = "Username is required")
+    private String username;
+    @NotBlank(message = "Password is required")
+    private String password;
+}
@@ -13,4 +13,7 @@ public class PaginatedResponse {
     private Object data;
     private int page;
     private int pageSize;
+    private String nextCursor;
+    private Long totalCount;
+    private Integer totalPages;
 }
@@ -0,0 +1,14 @@
+package com.java.test.junior.model;
+
+import lombok.*;
+
+@Getter
+@Setter
+@ToString
+@NoArgsConstructor
+@AllArgsConstructor
+public class PendingLike {
+    private Long userId;
+    private Long productId;
+    private boolean liked;
+}
@@ -3,6 +3,7 @@
  */
 package com.java.test.junior.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.*;
 
 import javax.validation.constraints.Min;
@@ -26,4 +27,7 @@ public class Product {
     private Long userId;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+    private Long likeCount;
+    @JsonIgnore
+    private LocalDateTime likeCountUpdatedAt;
 }
\ No newline at end of file
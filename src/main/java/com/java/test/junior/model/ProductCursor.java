@@ -0,0 +1,14 @@
+package com.java.test.junior.model;
+
+import lombok.*;
+
+@Getter
+@Setter
+@ToString
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductCursor {
+    private String sort;
+    private Long id;
+    private String value;
+}
@@ -0,0 +1,14 @@
+package com.java.test.junior.model;
+
+import lombok.*;
+
+@Getter
+@Setter
+@ToString
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductLikeCount {
+    private Long id;
+    private String name;
+    private long likeCount;
+}
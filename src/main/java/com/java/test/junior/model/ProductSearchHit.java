@@ -0,0 +1,11 @@
+package com.java.test.junior.model;
+
+import lombok.*;
+
+@Getter
+@Setter
+@ToString(callSuper = true)
+@NoArgsConstructor
+public class ProductSearchHit extends Product {
+    private Float rank;
+}
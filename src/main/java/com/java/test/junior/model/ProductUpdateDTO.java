@@ -0,0 +1,22 @@
+package com.java.test.junior.model;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+
+@Getter
+@Setter
+@NoArgsConstructor
+public class ProductUpdateDTO extends ProductDTO {
+    @NotNull(message = "Id is required")
+    @Min(value = 1, message = "Id must be positive")
+    private Long id;
+
+    public ProductUpdateDTO(Long id, String name, Double price, String description) {
+        super(name, price, description);
+        this.id = id;
+    }
+}
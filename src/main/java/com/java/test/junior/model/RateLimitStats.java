@@ -0,0 +1,15 @@
+package com.java.test.junior.model;
+
+import lombok.*;
+
+import java.util.Map;
+
+@Getter
+@Setter
+@ToString
+@NoArgsConstructor
+@AllArgsConstructor
+public class RateLimitStats {
+    private long trackedKeys;
+    private Map<String, Long> rejections;
+}
@@ -0,0 +1,15 @@
+package com.java.test.junior.model;
+
+import lombok.*;
+
+import javax.validation.constraints.NotBlank;
+
+@Getter
+@Setter
+@ToString(exclude = "refreshToken")
+@NoArgsConstructor
+@AllArgsConstructor
+public class RefreshTokenDTO {
+    @NotBlank(message = "Refresh token is required")
+    private String refreshToken;
+}
@@ -0,0 +1,15 @@
+package com.java.test.junior.model;
+
+import lombok.*;
+
+@Getter
+@Setter
+@ToString
+@NoArgsConstructor
+@AllArgsConstructor
+public class TokenPurgeStats {
+    private long outstanding;
+    private long expired;
+    private long purged;
+    private long lastRunPurged;
+}
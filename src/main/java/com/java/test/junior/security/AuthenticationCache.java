@@ -0,0 +1,86 @@
+package com.java.test.junior.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded LRU cache of successful credential checks. Entries are keyed by a digest of the
+ * presented credentials and expire after a fixed TTL, so BCrypt only runs once per TTL window
+ * for a given username/password pair.
+ *
+ * <p>Every eviction bumps a generation counter. A check that started before an eviction is not stored,
+ * so an authentication racing with a password change cannot put the old password back.</p>
+ */
+@Component
+public class AuthenticationCache {
+    private final long ttlMillis;
+    private final Map<String, Entry> entries;
+    private long generation;
+
+    public AuthenticationCache(@Value("${auth.cache.ttl-seconds:60}") long ttlSeconds,
+                               @Value("${auth.cache.max-entries:10000}") int maxEntries) {
+        this.ttlMillis = ttlSeconds * 1000;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    public synchronized Authentication get(String key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAt < System.currentTimeMillis()) {
+            entries.remove(key);
+            return null;
+        }
+        return entry.authentication;
+    }
+
+    /**
+     * The current generation, to be read before the credentials are checked and passed to {@link #put}.
+     */
+    public synchronized long generation() {
+        return generation;
+    }
+
+    public synchronized void put(String key, Authentication authentication, long checkGeneration) {
+        if (ttlMillis <= 0 || checkGeneration != generation) {
+            return;
+        }
+        entries.put(key, new Entry(authentication, System.currentTimeMillis() + ttlMillis));
+    }
+
+    public synchronized void evictUser(String username) {
+        generation++;
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().authentication.getName().equals(username)) {
+                iterator.remove();
+            }
+        }
+    }
+
+    public synchronized void clear() {
+        generation++;
+        entries.clear();
+    }
+
+    private static final class Entry {
+        private final Authentication authentication;
+        private final long expiresAt;
+
+        private Entry(Authentication authentication, long expiresAt) {
+            this.authentication = authentication;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.java.test.junior.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.java.test.junior.util.ResponseUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.java.Log;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Answers with 429 when a client, or the email a request names, has used up its tokens for the endpoint.
+ * Only {@code POST} requests to the paths {@link RateLimiter} has rules for are counted; everything else
+ * passes after one map lookup. The client is {@code getRemoteAddr()}; see {@link RateLimiter} for running
+ * behind a proxy.
+ */
+@Log
+@RequiredArgsConstructor
+public class RateLimitFilter extends OncePerRequestFilter {
+    private final RateLimiter rateLimiter;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        RateLimiter.Rule rule = "POST".equals(request.getMethod()) ? rateLimiter.ruleFor(request.getServletPath()) : null;
+        if (rule != null) {
+            long wait = rateLimiter.tryAcquire(rule.getPerIp(), request.getRemoteAddr());
+            String email = request.getParameter("email");
+            if (wait == 0 && email != null) {
+                wait = rateLimiter.tryAcquire(rule.getPerEmail(), email.trim().toLowerCase(Locale.ROOT));
+            }
+            if (wait > 0) {
+                log.fine("Rate limited " + request.getServletPath() + " from " + request.getRemoteAddr());
+                reject(response, wait);
+                return;
+            }
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    private void reject(HttpServletResponse response, long waitNanos) throws IOException {
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader("Retry-After", String.valueOf(Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos) + 1)));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getWriter(), ResponseUtil.getErrorResponse("Too many requests, try again later"));
+    }
+}
@@ -0,0 +1,281 @@
+package com.java.test.junior.security;
+
+import com.java.test.junior.model.RateLimitStats;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Token buckets for the unauthenticated endpoints that are expensive to serve, keyed by client IP and,
+ * where the request names one, by email.
+ *
+ * <p>Each bucket is a single {@link AtomicLong} holding the time at which it will be full again (the
+ * generic cell rate algorithm, which admits exactly what a token bucket of the same rate and burst
+ * admits), so taking a token is one compare-and-set. Buckets live in striped concurrent maps with a
+ * bounded number of keys per stripe. A bucket that has been full for the idle period is indistinguishable
+ * from a new one and is swept away. When a new client finds its stripe full, the full buckets go first,
+ * then the least recently used ones, a sixteenth of the stripe at a time, so a flood of new keys only
+ * pushes out clients that have gone quiet and never turns a client away for lack of room.</p>
+ *
+ * <p>Clients are told apart by {@code getRemoteAddr()}. Behind a reverse proxy that is the proxy's address
+ * and every client shares one bucket, so the proxy's {@code X-Forwarded-For} has to be applied first, with
+ * {@code server.forward-headers-strategy}: {@code native} honours it only from the proxies matched by
+ * {@code server.tomcat.remoteip.internal-proxies}, while {@code framework} installs Spring's
+ * {@code ForwardedHeaderFilter}, which trusts it from anyone and so must only be used when clients cannot
+ * reach the application directly.</p>
+ */
+@Component
+public class RateLimiter implements MeterBinder {
+    private static final int EVICTION_FRACTION = 16;
+
+    private final Map<String, Rule> rulesByPath = new HashMap<>();
+    private final ConcurrentHashMap<BucketKey, Bucket>[] stripes;
+    private final AtomicBoolean[] evictions;
+    private final int maxKeysPerStripe;
+    private final long idleNanos;
+    private final boolean enabled;
+
+    @SuppressWarnings("unchecked")
+    public RateLimiter(@Value("${rate-limit.enabled:true}") boolean enabled,
+                       @Value("${rate-limit.stripes:16}") int stripeCount,
+                       @Value("${rate-limit.max-keys:100000}") int maxKeys,
+                       @Value("${rate-limit.idle-seconds:600}") long idleSeconds,
+                       @Value("${rate-limit.register.per-ip:10/60}") String registerPerIp,
+                       @Value("${rate-limit.login.per-ip:30/60}") String loginPerIp,
+                       @Value("${rate-limit.forgot-password.per-ip:5/60}") String forgotPasswordPerIp,
+                       @Value("${rate-limit.forgot-password.per-email:3/3600}") String forgotPasswordPerEmail,
+                       @Value("${rate-limit.reset-password.per-ip:10/60}") String resetPasswordPerIp) {
+        this.enabled = enabled;
+        this.stripes = new ConcurrentHashMap[stripeCount];
+        this.evictions = new AtomicBoolean[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new ConcurrentHashMap<>();
+            evictions[i] = new AtomicBoolean();
+        }
+        this.maxKeysPerStripe = Math.max(1, maxKeys / stripeCount);
+        this.idleNanos = TimeUnit.SECONDS.toNanos(idleSeconds);
+
+        addRule("/api/auth/register", "register", registerPerIp, null);
+        addRule("/api/auth/login", "login", loginPerIp, null);
+        addRule("/api/forgot-password", "forgot-password", forgotPasswordPerIp, forgotPasswordPerEmail);
+        addRule("/api/reset-password", "reset-password", resetPasswordPerIp, null);
+    }
+
+    /**
+     * The rule for a request path, or {@code null} when the path is not limited.
+     */
+    public Rule ruleFor(String path) {
+        return enabled ? rulesByPath.get(path) : null;
+    }
+
+    /**
+     * Takes a token from the bucket of {@code key} and returns 0, or, when the bucket is empty, the
+     * nanoseconds until the next token becomes available. A {@code null} limit always admits.
+     */
+    public long tryAcquire(Limit limit, String key) {
+        if (limit == null) {
+            return 0;
+        }
+        long now = System.nanoTime();
+        AtomicLong bucket = bucketFor(limit, key, now).fullAt;
+        while (true) {
+            long fullAt = bucket.get();
+            // Times are compared by difference, so the arithmetic survives nanoTime wrapping around.
+            long base = fullAt - now > 0 ? fullAt : now;
+            long wait = base - now - limit.toleranceNanos;
+            if (wait > 0) {
+                limit.rejections.increment();
+                return wait;
+            }
+            if (bucket.compareAndSet(fullAt, base + limit.intervalNanos)) {
+                return 0;
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${rate-limit.sweep-interval-ms:60000}")
+    public void sweep() {
+        long idleSince = System.nanoTime() - idleNanos;
+        for (ConcurrentHashMap<BucketKey, Bucket> stripe : stripes) {
+            stripe.values().removeIf(bucket -> bucket.fullAt.get() - idleSince < 0);
+        }
+    }
+
+    public void clear() {
+        for (ConcurrentHashMap<BucketKey, Bucket> stripe : stripes) {
+            stripe.clear();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("rate.limit.tracked.keys", this, RateLimiter::trackedKeys)
+                .description("Rate limit buckets currently held in memory")
+                .register(registry);
+        for (Rule rule : rulesByPath.values()) {
+            for (Limit limit : rule.limits()) {
+                FunctionCounter.builder("rate.limit.rejections", limit.rejections, LongAdder::sum)
+                        .description("Requests rejected by a rate limit")
+                        .tag("limit", limit.name)
+                        .register(registry);
+            }
+        }
+    }
+
+    public RateLimitStats stats() {
+        Map<String, Long> rejections = new TreeMap<>();
+        for (Rule rule : rulesByPath.values()) {
+            for (Limit limit : rule.limits()) {
+                rejections.put(limit.name, limit.rejections.sum());
+            }
+        }
+        return new RateLimitStats(trackedKeys(), rejections);
+    }
+
+    private long trackedKeys() {
+        long trackedKeys = 0;
+        for (ConcurrentHashMap<BucketKey, Bucket> stripe : stripes) {
+            trackedKeys += stripe.size();
+        }
+        return trackedKeys;
+    }
+
+    private Bucket bucketFor(Limit limit, String key, long now) {
+        BucketKey bucketKey = new BucketKey(limit, key);
+        int hash = bucketKey.hashCode();
+        int index = Math.floorMod(hash ^ (hash >>> 16), stripes.length);
+        ConcurrentHashMap<BucketKey, Bucket> stripe = stripes[index];
+        Bucket bucket = stripe.get(bucketKey);
+        if (bucket != null) {
+            bucket.lastUsed = now;
+            return bucket;
+        }
+        // One thread makes room while the others go ahead, so the stripe can briefly exceed its bound by
+        // the number of threads inserting at that moment.
+        if (stripe.size() >= maxKeysPerStripe && evictions[index].compareAndSet(false, true)) {
+            try {
+                evict(stripe, now);
+            } finally {
+                evictions[index].set(false);
+            }
+        }
+        return stripe.computeIfAbsent(bucketKey, k -> new Bucket(now));
+    }
+
+    /**
+     * Brings the stripe down to a sixteenth below its bound, so the scan is paid once per that many new keys.
+     * Full buckets carry no state and go first; then the buckets unused for longest.
+     */
+    private void evict(ConcurrentHashMap<BucketKey, Bucket> stripe, long now) {
+        stripe.values().removeIf(existing -> existing.fullAt.get() - now <= 0);
+        int excess = stripe.size() - (maxKeysPerStripe - Math.max(1, maxKeysPerStripe / EVICTION_FRACTION));
+        if (excess <= 0) {
+            return;
+        }
+        // Ages rather than timestamps, since nanoTime values are only comparable by difference.
+        long[] ages = stripe.values().stream().mapToLong(existing -> now - existing.lastUsed).toArray();
+        if (ages.length == 0) {
+            return;
+        }
+        Arrays.sort(ages);
+        long minAge = ages[Math.max(0, ages.length - excess)];
+        // A bucket used since the scan is younger now and stays.
+        stripe.values().removeIf(existing -> now - existing.lastUsed >= minAge);
+    }
+
+    private void addRule(String path, String name, String perIp, String perEmail) {
+        Rule rule = new Rule(Limit.parse(name + ".ip", perIp), Limit.parse(name + ".email", perEmail));
+        if (!rule.limits().isEmpty()) {
+            rulesByPath.put(path, rule);
+        }
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    public static final class Rule {
+        private final Limit perIp;
+        private final Limit perEmail;
+
+        private List<Limit> limits() {
+            List<Limit> limits = new ArrayList<>(2);
+            if (perIp != null) {
+                limits.add(perIp);
+            }
+            if (perEmail != null) {
+                limits.add(perEmail);
+            }
+            return limits;
+        }
+    }
+
+    /**
+     * {@code requests/seconds}: a burst of {@code requests}, refilled evenly over {@code seconds}. A blank
+     * spec means no limit.
+     */
+    public static final class Limit {
+        private final String name;
+        private final long intervalNanos;
+        private final long toleranceNanos;
+        private final LongAdder rejections = new LongAdder();
+
+        private Limit(String name, long intervalNanos, long toleranceNanos) {
+            this.name = name;
+            this.intervalNanos = intervalNanos;
+            this.toleranceNanos = toleranceNanos;
+        }
+
+        static Limit parse(String name, String spec) {
+            if (spec == null || spec.isBlank()) {
+                return null;
+            }
+            String[] parts = spec.trim().split("/");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Rate limit " + name + " must be requests/seconds: " + spec);
+            }
+            long requests = Long.parseLong(parts[0].trim());
+            long seconds = Long.parseLong(parts[1].trim());
+            if (requests < 1 || seconds < 1) {
+                throw new IllegalArgumentException("Rate limit " + name + " must be positive: " + spec);
+            }
+            long interval = TimeUnit.SECONDS.toNanos(seconds) / requests;
+            return new Limit(name, interval, interval * (requests - 1));
+        }
+    }
+
+    private static final class Bucket {
+        // When the bucket will be full again.
+        private final AtomicLong fullAt;
+        private volatile long lastUsed;
+
+        private Bucket(long now) {
+            this.fullAt = new AtomicLong(now);
+            this.lastUsed = now;
+        }
+    }
+
+    @EqualsAndHashCode
+    @RequiredArgsConstructor
+    private static final class BucketKey {
+        private final Limit limit;
+        private final String key;
+    }
+}
@@ -0,0 +1,67 @@
+package com.java.test.junior.security;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records how long hashing and verifying passwords take, as {@code auth.password.encode} and
+ * {@code auth.password.verify}. With BCrypt these dominate the cost of every login that misses the
+ * authentication cache, and they grow with the configured strength.
+ *
+ * <p>The timers are registered when the registry binds this encoder, since services the registry binds
+ * depend on it. Calls made before that are not timed.</p>
+ */
+public class TimedPasswordEncoder implements PasswordEncoder, MeterBinder {
+    private final PasswordEncoder delegate;
+    private volatile Timer encodeTimer;
+    private volatile Timer verifyTimer;
+
+    public TimedPasswordEncoder(PasswordEncoder delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        encodeTimer = Timer.builder("auth.password.encode")
+                .description("Time to hash a password")
+                .register(registry);
+        verifyTimer = Timer.builder("auth.password.verify")
+                .description("Time to verify a password against its hash")
+                .register(registry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        long start = System.nanoTime();
+        try {
+            return delegate.encode(rawPassword);
+        } finally {
+            record(encodeTimer, start);
+        }
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        long start = System.nanoTime();
+        try {
+            return delegate.matches(rawPassword, encodedPassword);
+        } finally {
+            record(verifyTimer, start);
+        }
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    private static void record(Timer timer, long start) {
+        if (timer != null) {
+            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package com.java.test.junior.security;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.java.test.junior.exception.UnauthorizedException;
+import com.java.test.junior.mapper.AuthTokenMapper;
+import com.java.test.junior.model.TokenRevocation;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.extern.java.Log;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Base64;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static com.java.test.junior.util.TransactionUtil.afterCommit;
+
+/**
+ * Issues and verifies HMAC-signed access and refresh tokens. Verifying an access token needs no
+ * database access: it is a signature check plus a lookup in the in-memory revocation list that is
+ * filled whenever a user's password changes. Refresh tokens carry a fingerprint of the password hash
+ * and are checked against the database on refresh, so revocation survives restarts as well.
+ *
+ * <p>Revocations are also written to {@code token_revocation} and every node reloads that table on a
+ * fixed delay, so a revocation made on one node reaches the others, and a restarted node, within
+ * {@code auth.token.revocation-sync-ms}. Comparing revocation and issue times across nodes assumes
+ * their clocks are synchronized.</p>
+ *
+ * <p>Each refresh token carries a random id and can be exchanged once: its id is recorded in
+ * {@code used_refresh_token} until it expires, and presenting it again is treated as a stolen token.</p>
+ */
+@Log
+@Component
+public class TokenService {
+    public static final String ACCESS = "access";
+    public static final String REFRESH = "refresh";
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final ObjectMapper objectMapper;
+    private final AuthTokenMapper authTokenMapper;
+    private final SecretKeySpec signingKey;
+    private final long accessTtlMillis;
+    private final long refreshTtlMillis;
+    private final Map<String, Long> revokedBefore = new ConcurrentHashMap<>();
+
+    @Value("${auth.token.purge.batch-size:5000}")
+    private int purgeBatchSize;
+
+    public TokenService(ObjectMapper objectMapper,
+                        AuthTokenMapper authTokenMapper,
+                        @Value("${auth.token.secret:}") String secret,
+                        @Value("${auth.token.access-ttl-seconds:900}") long accessTtlSeconds,
+                        @Value("${auth.token.refresh-ttl-seconds:604800}") long refreshTtlSeconds) {
+        this.objectMapper = objectMapper;
+        this.authTokenMapper = authTokenMapper;
+        this.accessTtlMillis = accessTtlSeconds * 1000;
+        this.refreshTtlMillis = refreshTtlSeconds * 1000;
+
+        byte[] keyBytes;
+        if (secret == null || secret.isBlank()) {
+            log.warning("auth.token.secret is not set, tokens will not survive a restart");
+            keyBytes = new byte[32];
+            new SecureRandom().nextBytes(keyBytes);
+        } else {
+            keyBytes = secret.getBytes(StandardCharsets.UTF_8);
+        }
+        this.signingKey = new SecretKeySpec(keyBytes, HMAC_ALGORITHM);
+    }
+
+    public String issueAccessToken(Long userId, String username, String role) {
+        long now = System.currentTimeMillis();
+        return sign(new TokenClaims(ACCESS, null, userId, username, role, null, now, now + accessTtlMillis));
+    }
+
+    public String issueRefreshToken(Long userId, String username, String role, String passwordHash) {
+        long now = System.currentTimeMillis();
+        return sign(new TokenClaims(REFRESH, UUID.randomUUID().toString(), userId, username, role,
+                fingerprint(passwordHash), now, now + refreshTtlMillis));
+    }
+
+    public long getAccessTtlSeconds() {
+        return accessTtlMillis / 1000;
+    }
+
+    /**
+     * Verifies signature, type, expiry and revocation of a token and returns its claims.
+     */
+    public TokenClaims verify(String token, String expectedType) {
+        int separator = token.indexOf('.');
+        if (separator <= 0 || separator == token.length() - 1) {
+            throw new UnauthorizedException("Malformed token");
+        }
+        String payload = token.substring(0, separator);
+        byte[] signature;
+        try {
+            signature = DECODER.decode(token.substring(separator + 1));
+        } catch (IllegalArgumentException e) {
+            throw new UnauthorizedException("Malformed token");
+        }
+        if (!MessageDigest.isEqual(hmac(payload), signature)) {
+            throw new UnauthorizedException("Invalid token signature");
+        }
+
+        TokenClaims claims;
+        try {
+            claims = objectMapper.readValue(DECODER.decode(payload), TokenClaims.class);
+        } catch (Exception e) {
+            throw new UnauthorizedException("Malformed token");
+        }
+
+        if (!expectedType.equals(claims.getType())) {
+            throw new UnauthorizedException("Unexpected token type");
+        }
+        if (claims.getExpiresAt() < System.currentTimeMillis()) {
+            throw new UnauthorizedException("Token has expired");
+        }
+        Long revoked = revokedBefore.get(claims.getUsername());
+        if (revoked != null && claims.getIssuedAt() <= revoked) {
+            throw new UnauthorizedException("Token has been revoked");
+        }
+        return claims;
+    }
+
+    public boolean matchesPassword(TokenClaims claims, String passwordHash) {
+        return claims.getPasswordFingerprint() != null
+                && claims.getPasswordFingerprint().equals(fingerprint(passwordHash));
+    }
+
+    /**
+     * Records a refresh token as exchanged and returns {@code false} when it already was, that is, when
+     * the token is being replayed.
+     */
+    public boolean markRefreshTokenUsed(TokenClaims claims) {
+        if (claims.getTokenId() == null) {
+            return false;
+        }
+        LocalDateTime expiresAt = LocalDateTime.ofInstant(Instant.ofEpochMilli(claims.getExpiresAt()),
+                ZoneId.systemDefault());
+        return authTokenMapper.markRefreshTokenUsed(claims.getTokenId(), claims.getUsername(), expiresAt) == 1;
+    }
+
+    /**
+     * Rejects every token issued to the user up to now, on this node once the surrounding transaction
+     * commits and on the others at their next {@link #syncRevocations()}.
+     */
+    public void revoke(String username) {
+        long now = System.currentTimeMillis();
+        authTokenMapper.saveRevocation(username, now);
+        // Rejecting the tokens before the revocation commits, along with the change that prompted it, would lock
+        // the user out over a change that may still roll back.
+        afterCommit(() -> revokedBefore.merge(username, now, Math::max));
+    }
+
+    /**
+     * Reloads the revocations that can still reject a token. Entries older than the longest token
+     * lifetime no longer reject anything and are dropped.
+     */
+    @Scheduled(fixedDelayString = "${auth.token.revocation-sync-ms:5000}")
+    public void syncRevocations() {
+        long horizon = System.currentTimeMillis() - Math.max(accessTtlMillis, refreshTtlMillis);
+        for (TokenRevocation revocation : authTokenMapper.findRevocationsSince(horizon)) {
+            revokedBefore.merge(revocation.getUsername(), revocation.getRevokedAt(), Math::max);
+        }
+        revokedBefore.values().removeIf(revokedAt -> revokedAt < horizon);
+    }
+
+    /**
+     * Deletes used refresh token ids past their expiry and revocations past the longest token lifetime,
+     * in bounded batches.
+     */
+    @Scheduled(fixedDelayString = "${auth.token.purge.interval-ms:3600000}")
+    public void purgeExpired() {
+        long horizon = System.currentTimeMillis() - Math.max(accessTtlMillis, refreshTtlMillis);
+        long total = 0;
+        int deleted;
+        do {
+            deleted = authTokenMapper.purgeUsedRefreshTokens(purgeBatchSize);
+            total += deleted;
+        } while (deleted == purgeBatchSize);
+        do {
+            deleted = authTokenMapper.purgeRevocations(horizon, purgeBatchSize);
+            total += deleted;
+        } while (deleted == purgeBatchSize);
+        if (total > 0) {
+            log.info("Purged " + total + " expired refresh token ids and revocations");
+        }
+    }
+
+    private String sign(TokenClaims claims) {
+        try {
+            String payload = ENCODER.encodeToString(objectMapper.writeValueAsBytes(claims));
+            return payload + "." + ENCODER.encodeToString(hmac(payload));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unable to serialize token", e);
+        }
+    }
+
+    private byte[] hmac(String payload) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(signingKey);
+            return mac.doFinal(payload.getBytes(StandardCharsets.US_ASCII));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to sign token", e);
+        }
+    }
+
+    private String fingerprint(String passwordHash) {
+        return ENCODER.encodeToString(hmac(passwordHash)).substring(0, 16);
+    }
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class TokenClaims {
+        private String type;
+        private String tokenId;
+        private Long userId;
+        private String username;
+        private String role;
+        private String passwordFingerprint;
+        private long issuedAt;
+        private long expiresAt;
+    }
+}
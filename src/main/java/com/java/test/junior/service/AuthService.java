@@ -0,0 +1,13 @@
+package com.java.test.junior.service;
+
+import com.java.test.junior.model.LoginDTO;
+import com.java.test.junior.model.Response;
+import org.springframework.http.ResponseEntity;
+
+public interface AuthService {
+    ResponseEntity<Response> login(LoginDTO loginDTO);
+
+    ResponseEntity<Response> refresh(String refreshToken);
+
+    ResponseEntity<Response> rateLimitStats();
+}
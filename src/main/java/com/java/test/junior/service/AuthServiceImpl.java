@@ -0,0 +1,80 @@
+package com.java.test.junior.service;
+
+import com.java.test.junior.exception.UnauthorizedException;
+import com.java.test.junior.mapper.UserMapper;
+import com.java.test.junior.model.LoginDTO;
+import com.java.test.junior.model.Response;
+import com.java.test.junior.model.TokenResponse;
+import com.java.test.junior.model.User;
+import com.java.test.junior.security.RateLimiter;
+import com.java.test.junior.security.TokenService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.java.Log;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.stereotype.Service;
+
+import static com.java.test.junior.util.ResponseUtil.buildSuccessResponse;
+
+@Service
+@RequiredArgsConstructor
+@Log
+public class AuthServiceImpl implements AuthService {
+    private final AuthenticationProvider authenticationProvider;
+    private final TokenService tokenService;
+    private final UserMapper userMapper;
+    private final RateLimiter rateLimiter;
+
+    @Override
+    public ResponseEntity<Response> login(LoginDTO loginDTO) {
+        log.info("Login called for username: " + loginDTO.getUsername());
+        try {
+            authenticationProvider.authenticate(
+                    new UsernamePasswordAuthenticationToken(loginDTO.getUsername(), loginDTO.getPassword()));
+        } catch (AuthenticationException e) {
+            log.warning("Login failed for username: " + loginDTO.getUsername());
+            throw new UnauthorizedException("Invalid username or password");
+        }
+
+        User user = userMapper.findByUsername(loginDTO.getUsername());
+        if (user == null) {
+            throw new UnauthorizedException("Invalid username or password");
+        }
+        return ResponseEntity.status(HttpStatus.OK)
+                .body(buildSuccessResponse("Login successful", issueTokens(user)));
+    }
+
+    @Override
+    public ResponseEntity<Response> refresh(String refreshToken) {
+        TokenService.TokenClaims claims = tokenService.verify(refreshToken, TokenService.REFRESH);
+        User user = userMapper.findByUsername(claims.getUsername());
+        if (user == null || !tokenService.matchesPassword(claims, user.getPassword())) {
+            log.warning("Refresh token rejected for username: " + claims.getUsername());
+            throw new UnauthorizedException("Token has been revoked");
+        }
+        if (!tokenService.markRefreshTokenUsed(claims)) {
+            // Only one party can hold the successor of a rotated token, so a replay means the token leaked.
+            log.warning("Refresh token reused for username: " + claims.getUsername() + ", revoking all tokens");
+            tokenService.revoke(claims.getUsername());
+            throw new UnauthorizedException("Token has already been used");
+        }
+        return ResponseEntity.status(HttpStatus.OK)
+                .body(buildSuccessResponse("Token refreshed successfully", issueTokens(user)));
+    }
+
+    @Override
+    public ResponseEntity<Response> rateLimitStats() {
+        return ResponseEntity.status(HttpStatus.OK)
+                .body(buildSuccessResponse("Rate limit statistics retrieved successfully", rateLimiter.stats()));
+    }
+
+    private TokenResponse issueTokens(User user) {
+        String accessToken = tokenService.issueAccessToken(user.getId(), user.getUsername(), user.getRole());
+        String refreshToken = tokenService.issueRefreshToken(user.getId(), user.getUsername(), user.getRole(),
+                user.getPassword());
+        return new TokenResponse(accessToken, refreshToken, "Bearer", tokenService.getAccessTtlSeconds());
+    }
+}
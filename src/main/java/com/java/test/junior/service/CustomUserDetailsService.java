@@ -2,6 +2,7 @@ package com.java.test.junior.service;
 
 import com.java.test.junior.mapper.UserMapper;
 import com.java.test.junior.model.User;
+import com.java.test.junior.security.UserPrincipal;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
@@ -20,10 +21,6 @@ public class CustomUserDetailsService implements UserDetailsService {
             throw new UsernameNotFoundException("User not found with username: " + username);
         }
 
-        return org.springframework.security.core.userdetails.User
-                .withUsername(user.getUsername())
-                .password(user.getPassword())
-                .authorities(user.getRole())
-                .build();
+        return new UserPrincipal(user.getId(), user.getUsername(), user.getPassword(), user.getRole());
     }
 }
\ No newline at end of file
@@ -0,0 +1,224 @@
+package com.java.test.junior.service;
+
+import com.java.test.junior.mapper.EmailOutboxMapper;
+import com.java.test.junior.model.OutboxEmail;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.java.Log;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Delivers the email outbox in the background, so no request thread ever talks to the SMTP server.
+ *
+ * <p>Each poll claims due emails in batches and splits a batch over a bounded pool of senders. A sender
+ * hands its whole share to {@link JavaMailSender} in one call, which delivers it over a single SMTP
+ * connection. Emails that fail are retried with exponential backoff and jitter until they run out of
+ * attempts and are marked failed. Sent and failed emails lose their body straight away and are deleted
+ * once they are older than the retention period.</p>
+ */
+@Component
+@Log
+public class EmailDispatcher implements MeterBinder {
+    private final EmailOutboxMapper emailOutboxMapper;
+    private final JavaMailSender mailSender;
+    private final int batchSize;
+    private final int concurrency;
+    private final int maxAttempts;
+    private final long leaseSeconds;
+    private final long retryBaseSeconds;
+    private final long retryMaxSeconds;
+    private final int retentionHours;
+    private final int purgeBatchSize;
+    private final ExecutorService senders;
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong failedAttempts = new AtomicLong();
+    private final AtomicLong givenUp = new AtomicLong();
+
+    public EmailDispatcher(EmailOutboxMapper emailOutboxMapper, JavaMailSender mailSender,
+                           @Value("${email.outbox.batch-size:50}") int batchSize,
+                           @Value("${email.outbox.concurrency:4}") int concurrency,
+                           @Value("${email.outbox.max-attempts:8}") int maxAttempts,
+                           @Value("${email.outbox.lease-seconds:120}") long leaseSeconds,
+                           @Value("${email.outbox.retry-base-seconds:30}") long retryBaseSeconds,
+                           @Value("${email.outbox.retry-max-seconds:3600}") long retryMaxSeconds,
+                           @Value("${email.outbox.retention-hours:168}") int retentionHours,
+                           @Value("${email.outbox.purge.batch-size:5000}") int purgeBatchSize) {
+        this.emailOutboxMapper = emailOutboxMapper;
+        this.mailSender = mailSender;
+        this.batchSize = batchSize;
+        this.concurrency = concurrency;
+        this.maxAttempts = maxAttempts;
+        this.leaseSeconds = leaseSeconds;
+        this.retryBaseSeconds = retryBaseSeconds;
+        this.retryMaxSeconds = retryMaxSeconds;
+        this.retentionHours = retentionHours;
+        this.purgeBatchSize = purgeBatchSize;
+        this.senders = Executors.newFixedThreadPool(concurrency, runnable -> {
+            Thread thread = new Thread(runnable, "email-sender");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${email.outbox.poll-interval-ms:1000}")
+    public void dispatch() {
+        List<OutboxEmail> batch;
+        do {
+            batch = emailOutboxMapper.claimDue(batchSize, leaseSeconds);
+            if (!batch.isEmpty()) {
+                deliver(batch);
+            }
+        } while (batch.size() == batchSize && !senders.isShutdown());
+    }
+
+    /**
+     * Deletes sent and failed emails past the retention period in bounded batches.
+     */
+    @Scheduled(fixedDelayString = "${email.outbox.purge.interval-ms:3600000}")
+    public void purgeFinished() {
+        long total = 0;
+        int deleted;
+        do {
+            deleted = emailOutboxMapper.purgeFinished(retentionHours, purgeBatchSize);
+            total += deleted;
+        } while (deleted == purgeBatchSize);
+        if (total > 0) {
+            log.info("Purged " + total + " finished outbox emails");
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("email.outbox.sent", sent, AtomicLong::get)
+                .description("Outbox emails accepted by the SMTP server")
+                .register(registry);
+        FunctionCounter.builder("email.outbox.failed.attempts", failedAttempts, AtomicLong::get)
+                .description("Outbox delivery attempts that failed")
+                .register(registry);
+        FunctionCounter.builder("email.outbox.given.up", givenUp, AtomicLong::get)
+                .description("Outbox emails marked failed after their last attempt")
+                .register(registry);
+    }
+
+    public long getSent() {
+        return sent.get();
+    }
+
+    public long getFailedAttempts() {
+        return failedAttempts.get();
+    }
+
+    public long getGivenUp() {
+        return givenUp.get();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // Claimed emails that were not recorded become due again once their lease runs out.
+        senders.shutdown();
+    }
+
+    private void deliver(List<OutboxEmail> batch) {
+        int shares = Math.min(concurrency, batch.size());
+        List<Future<Map<OutboxEmail, String>>> results = new ArrayList<>(shares);
+        for (int i = 0; i < shares; i++) {
+            List<OutboxEmail> share = new ArrayList<>();
+            for (int j = i; j < batch.size(); j += shares) {
+                share.add(batch.get(j));
+            }
+            results.add(senders.submit(() -> send(share)));
+        }
+
+        List<Long> delivered = new ArrayList<>();
+        for (int i = 0; i < shares; i++) {
+            Map<OutboxEmail, String> failures = null;
+            String shareError = null;
+            try {
+                failures = results.get(i).get();
+            } catch (InterruptedException e) {
+                // The leases of this batch run out and it is picked up again.
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException e) {
+                shareError = String.valueOf(e.getCause());
+            }
+            for (int j = i; j < batch.size(); j += shares) {
+                OutboxEmail email = batch.get(j);
+                String error = failures != null ? failures.get(email) : shareError;
+                if (error == null) {
+                    delivered.add(email.getId());
+                } else {
+                    retryOrGiveUp(email, error);
+                }
+            }
+        }
+        if (!delivered.isEmpty()) {
+            emailOutboxMapper.markSent(delivered);
+            sent.addAndGet(delivered.size());
+        }
+    }
+
+    /**
+     * Sends a share over one connection and returns the error of every email that was not accepted.
+     */
+    private Map<OutboxEmail, String> send(List<OutboxEmail> share) {
+        SimpleMailMessage[] messages = new SimpleMailMessage[share.size()];
+        for (int i = 0; i < messages.length; i++) {
+            OutboxEmail email = share.get(i);
+            messages[i] = new SimpleMailMessage();
+            messages[i].setTo(email.getRecipient());
+            messages[i].setSubject(email.getSubject());
+            messages[i].setText(email.getBody());
+        }
+
+        Map<OutboxEmail, String> failures = new IdentityHashMap<>();
+        try {
+            mailSender.send(messages);
+        } catch (MailSendException e) {
+            Map<Object, Exception> failedMessages = e.getFailedMessages();
+            for (int i = 0; i < messages.length; i++) {
+                Exception failure = failedMessages.get(messages[i]);
+                if (failure != null) {
+                    failures.put(share.get(i), String.valueOf(failure.getMessage()));
+                }
+            }
+            // Without per-message failures every message was accepted and only closing the connection failed.
+        } catch (RuntimeException e) {
+            for (OutboxEmail email : share) {
+                failures.put(email, String.valueOf(e.getMessage()));
+            }
+        }
+        return failures;
+    }
+
+    private void retryOrGiveUp(OutboxEmail email, String error) {
+        failedAttempts.incrementAndGet();
+        if (email.getAttempts() >= maxAttempts) {
+            log.severe("Giving up on email " + email.getId() + " to " + email.getRecipient() + " after "
+                    + email.getAttempts() + " attempts: " + error);
+            emailOutboxMapper.markFailed(email.getId(), error);
+            givenUp.incrementAndGet();
+            return;
+        }
+        long backoff = Math.min(retryMaxSeconds, retryBaseSeconds << Math.min(email.getAttempts() - 1, 30));
+        // Jitter spreads out retries of emails that failed together, e.g. during an outage.
+        long delay = backoff / 2 + ThreadLocalRandom.current().nextLong(backoff / 2 + 1);
+        log.warning("Email " + email.getId() + " failed on attempt " + email.getAttempts() + ", retrying in "
+                + delay + " s: " + error);
+        emailOutboxMapper.reschedule(email.getId(), delay, error);
+    }
+}
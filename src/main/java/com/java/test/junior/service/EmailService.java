@@ -4,5 +4,7 @@ import com.java.test.junior.model.Response;
 import org.springframework.http.ResponseEntity;
 
 public interface EmailService {
-    ResponseEntity<Response> send(String to, String subject, String content);
+    void send(String to, String subject, String content);
+
+    ResponseEntity<Response> outboxStats();
 }
@@ -1,30 +1,45 @@
 package com.java.test.junior.service;
 
+import com.java.test.junior.mapper.EmailOutboxMapper;
+import com.java.test.junior.model.EmailOutboxStats;
+import com.java.test.junior.model.OutboxEmail;
 import com.java.test.junior.model.Response;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.java.Log;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.stereotype.Service;
 
 import static com.java.test.junior.util.ResponseUtil.buildSuccessResponse;
 
-
+/**
+ * Sending only records the email in the outbox, inside the caller's transaction when there is one, so
+ * the email exists exactly when the data it refers to was committed. {@link EmailDispatcher} delivers it.
+ */
 @Service
 @Log
 @RequiredArgsConstructor
 public class EmailServiceImpl implements EmailService{
-    private final JavaMailSender mailSender;
+    private final EmailOutboxMapper emailOutboxMapper;
+    private final EmailDispatcher emailDispatcher;
+
+    @Override
+    public void send(String to, String subject, String content) {
+        OutboxEmail email = new OutboxEmail();
+        email.setRecipient(to);
+        email.setSubject(subject);
+        email.setBody(content);
+        emailOutboxMapper.save(email);
+        log.info("Email " + email.getId() + " queued for " + to);
+    }
 
     @Override
-    public ResponseEntity<Response> send(String to, String subject, String content) {
-        SimpleMailMessage message = new SimpleMailMessage();
-        message.setTo(to);
-        message.setSubject(subject);
-        message.setText(content);
-        mailSender.send(message);
-        return ResponseEntity.status(HttpStatus.OK).body(buildSuccessResponse("Reset password email sent", null));
+    public ResponseEntity<Response> outboxStats() {
+        EmailOutboxStats stats = emailOutboxMapper.findStats();
+        stats.setSent(emailDispatcher.getSent());
+        stats.setFailedAttempts(emailDispatcher.getFailedAttempts());
+        stats.setGivenUp(emailDispatcher.getGivenUp());
+        return ResponseEntity.status(HttpStatus.OK)
+                .body(buildSuccessResponse("Email outbox statistics retrieved successfully", stats));
     }
 }
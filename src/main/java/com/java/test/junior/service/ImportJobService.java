@@ -0,0 +1,26 @@
+package com.java.test.junior.service;
+
+import com.java.test.junior.model.Response;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ResponseEntity;
+
+import javax.servlet.http.HttpServletRequest;
+import java.io.IOException;
+
+public interface ImportJobService {
+    ResponseEntity<Response> startProductImport(String fileLocation, Integer parallelism, String mode, Long maxErrors)
+            throws IOException;
+
+    ResponseEntity<Response> uploadProductImport(HttpServletRequest request, Integer parallelism, String mode,
+                                                 Long maxErrors) throws IOException;
+
+    ResponseEntity<Response> findJob(Long id);
+
+    ResponseEntity<Response> cancelJob(Long id);
+
+    ResponseEntity<Resource> downloadRejects(Long id);
+
+    void failExpired();
+
+    void purgeRejectFiles() throws IOException;
+}
@@ -0,0 +1,455 @@
+package com.java.test.junior.service;
+
+import com.java.test.junior.exception.BadRequestException;
+import com.java.test.junior.exception.ResourceNotFoundException;
+import com.java.test.junior.exception.ServiceUnavailableException;
+import com.java.test.junior.mapper.ImportJobMapper;
+import com.java.test.junior.model.ImportJob;
+import com.java.test.junior.model.Response;
+import com.java.test.junior.util.CsvRejectWriter;
+import com.java.test.junior.util.DecompressingInputStreams;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.java.Log;
+import org.apache.commons.fileupload.FileItemIterator;
+import org.apache.commons.fileupload.FileItemStream;
+import org.apache.commons.fileupload.FileUploadException;
+import org.apache.commons.fileupload.servlet.ServletFileUpload;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import javax.servlet.http.HttpServletRequest;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ToLongFunction;
+
+import static com.java.test.junior.util.ResponseUtil.buildSuccessResponse;
+import static com.java.test.junior.util.ResponseUtil.getErrorResponse;
+
+/**
+ * Runs product imports in the background. Every job is a row in {@code import_job}; live progress is
+ * kept in memory while the job runs and flushed to the table periodically and when the job ends. Rows
+ * that fail validation are written to a per-job reject file until the job's error budget runs out.
+ * Reject files are deleted once they are older than the retention period. Background jobs and uploads
+ * share one limit on the number of imports running at once.
+ *
+ * <p>Bytes and rows read by all imports are exported as counters, live while a job runs, so import
+ * throughput is the rate of {@code product.import.bytes} and {@code product.import.rows}.</p>
+ */
+@Service
+@Log
+public class ImportJobServiceImpl implements ImportJobService, ApplicationRunner, MeterBinder {
+    private final ImportJobMapper importJobMapper;
+    private final ProductImportService productImportService;
+    private final ExecutorService executor;
+    private final Semaphore slots;
+    private final Map<Long, ImportProgress> running = new ConcurrentHashMap<>();
+    private final Object finishLock = new Object();
+    private final AtomicLong finishedBytes = new AtomicLong();
+    private final AtomicLong finishedRows = new AtomicLong();
+    private final AtomicLong finishedRejected = new AtomicLong();
+    private final Path rejectDirectory;
+    private final long defaultMaxErrors;
+
+    @Value("${product.import.lease-seconds:120}")
+    private long leaseSeconds;
+
+    @Value("${product.import.reject-retention-hours:168}")
+    private long rejectRetentionHours;
+
+    public ImportJobServiceImpl(ImportJobMapper importJobMapper, ProductImportService productImportService,
+                                @Value("${product.import.max-concurrent-jobs:2}") int maxConcurrentJobs,
+                                @Value("${product.import.reject-dir:${java.io.tmpdir}/product-import-rejects}") String rejectDirectory,
+                                @Value("${product.import.max-errors:1000}") long defaultMaxErrors) {
+        this.importJobMapper = importJobMapper;
+        this.productImportService = productImportService;
+        this.rejectDirectory = Paths.get(rejectDirectory);
+        this.defaultMaxErrors = defaultMaxErrors;
+        this.slots = new Semaphore(maxConcurrentJobs);
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(maxConcurrentJobs, runnable -> {
+            Thread thread = new Thread(runnable, "product-import-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        failExpired();
+    }
+
+    /**
+     * Fails the unfinished jobs whose node stopped renewing their lease, after a crash or restart. Every
+     * node renews the jobs it runs on each {@link #flushProgress()}, so other nodes' live jobs are kept.
+     */
+    @Override
+    @Scheduled(fixedDelayString = "${product.import.lease-check-ms:30000}")
+    public void failExpired() {
+        int interrupted = importJobMapper.failExpired("Interrupted: the node running the job stopped", leaseSeconds);
+        if (interrupted > 0) {
+            log.warning("Marked " + interrupted + " abandoned import jobs as failed");
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("product.import.bytes", this,
+                        service -> service.total(ImportProgress::getBytesProcessed, finishedBytes))
+                .description("Bytes of CSV input read by product imports, before decompression")
+                .baseUnit("bytes")
+                .register(registry);
+        FunctionCounter.builder("product.import.rows", this,
+                        service -> service.total(ImportProgress::getRowsProcessed, finishedRows))
+                .description("CSV rows read by product imports")
+                .baseUnit("rows")
+                .register(registry);
+        FunctionCounter.builder("product.import.rejected", this,
+                        service -> service.total(ImportProgress::getRowsRejected, finishedRejected))
+                .description("CSV rows rejected by product import validation")
+                .baseUnit("rows")
+                .register(registry);
+        Gauge.builder("product.import.jobs.running", running, Map::size)
+                .description("Product import jobs currently running")
+                .register(registry);
+    }
+
+    @Override
+    public ResponseEntity<Response> startProductImport(String fileLocation, Integer parallelism, String mode,
+                                                       Long maxErrors) throws IOException {
+        log.info("Starting product import job for path: " + fileLocation);
+        Long totalBytes;
+        InputStream inputStream;
+        if (fileLocation.startsWith("http://") || fileLocation.startsWith("https://")) {
+            URLConnection connection = new URL(fileLocation).openConnection();
+            inputStream = connection.getInputStream();
+            long length = connection.getContentLengthLong();
+            totalBytes = length >= 0 ? length : null;
+        } else {
+            inputStream = new FileInputStream(fileLocation);
+            totalBytes = Files.size(Paths.get(fileLocation));
+        }
+
+        ImportJob job;
+        try {
+            job = createJob(fileLocation, mode, totalBytes, maxErrors);
+        } catch (RuntimeException e) {
+            inputStream.close();
+            throw e;
+        }
+
+        ImportProgress progress = new ImportProgress();
+        running.put(job.getId(), progress);
+        try {
+            executor.execute(() -> runQueuedJob(job, inputStream, parallelism, progress));
+        } catch (RejectedExecutionException e) {
+            running.remove(job.getId());
+            inputStream.close();
+            importJobMapper.finish(job.getId(), ImportJob.FAILED, 0, 0, 0, "Import executor is shut down");
+            throw e;
+        }
+
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(buildSuccessResponse("Import job started", importJobMapper.findById(job.getId())));
+    }
+
+    /**
+     * Streams the file part of a multipart request straight into the import. The servlet input stream
+     * is only readable while the request is open, so the job runs on the request thread; it is still
+     * tracked and can be watched and cancelled through the job endpoints meanwhile. An upload takes one of
+     * the import slots or is turned away, since a client cannot be kept waiting with its body unread.
+     * The job's total size is the part's own Content-Length when the client sends one. The request's length
+     * would also count the multipart framing and any other parts, so otherwise the total is unknown.
+     */
+    @Override
+    public ResponseEntity<Response> uploadProductImport(HttpServletRequest request, Integer parallelism, String mode,
+                                                        Long maxErrors) throws IOException {
+        if (!ServletFileUpload.isMultipartContent(request)) {
+            throw new BadRequestException("Request must be multipart/form-data");
+        }
+        FileItemStream item = findFilePart(request);
+        if (item == null) {
+            throw new BadRequestException("Multipart request contains no file");
+        }
+        if (!slots.tryAcquire()) {
+            throw new ServiceUnavailableException("Too many imports are running, retry later");
+        }
+        ImportJob job;
+        try {
+            log.info("Starting product import job for upload: " + item.getName());
+            job = createJob("upload:" + item.getName(), mode, partSize(item), maxErrors);
+            ImportProgress progress = new ImportProgress();
+            running.put(job.getId(), progress);
+            runJob(job, item.openStream(), parallelism, progress);
+        } finally {
+            slots.release();
+        }
+        return uploadResult(withRates(importJobMapper.findById(job.getId())));
+    }
+
+    /**
+     * The first file part of the request, positioned so its content can be streamed, or null if there is none.
+     */
+    private static FileItemStream findFilePart(HttpServletRequest request) throws IOException {
+        try {
+            FileItemIterator items = new ServletFileUpload().getItemIterator(request);
+            while (items.hasNext()) {
+                FileItemStream item = items.next();
+                if (!item.isFormField()) {
+                    return item;
+                }
+            }
+            return null;
+        } catch (FileUploadException e) {
+            throw new BadRequestException("Malformed multipart request: " + e.getMessage());
+        }
+    }
+
+    private static Long partSize(FileItemStream item) {
+        String contentLength = item.getHeaders() != null ? item.getHeaders().getHeader("Content-Length") : null;
+        if (contentLength == null) {
+            return null;
+        }
+        try {
+            long size = Long.parseLong(contentLength.trim());
+            return size >= 0 ? size : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public ResponseEntity<Response> findJob(Long id) {
+        ImportJob job = importJobMapper.findById(id);
+        if (job == null) {
+            throw new ResourceNotFoundException("Import job not found");
+        }
+        return ResponseEntity.status(HttpStatus.OK).body(buildSuccessResponse("Import job found", withRates(job)));
+    }
+
+    @Override
+    public ResponseEntity<Response> cancelJob(Long id) {
+        ImportJob job = importJobMapper.findById(id);
+        if (job == null) {
+            throw new ResourceNotFoundException("Import job not found");
+        }
+        ImportProgress progress = running.get(id);
+        if (progress == null) {
+            throw new BadRequestException("Import job is not running");
+        }
+        log.info("Cancelling import job with id: " + id);
+        progress.cancel();
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(buildSuccessResponse("Import job cancellation requested", null));
+    }
+
+    @Override
+    public ResponseEntity<Resource> downloadRejects(Long id) {
+        if (importJobMapper.findById(id) == null) {
+            throw new ResourceNotFoundException("Import job not found");
+        }
+        Path file = rejectFile(id);
+        if (!Files.exists(file)) {
+            throw new ResourceNotFoundException("Import job has no rejected rows");
+        }
+        return ResponseEntity.status(HttpStatus.OK)
+                .contentType(new MediaType("text", "csv", StandardCharsets.UTF_8))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + file.getFileName() + "\"")
+                .body(new FileSystemResource(file));
+    }
+
+    /**
+     * Also renews the lease of every job this node runs, pending ones included, by touching its row.
+     */
+    @Scheduled(fixedDelayString = "${product.import.progress-flush-ms:2000}")
+    public void flushProgress() {
+        running.forEach((id, progress) -> importJobMapper.updateProgress(id, progress.getBytesProcessed(),
+                progress.getRowsProcessed(), progress.getRowsRejected()));
+    }
+
+    /**
+     * Deletes reject files not written to for the retention period. A running job keeps writing its file,
+     * so only finished jobs' files age out.
+     */
+    @Override
+    @Scheduled(fixedDelayString = "${product.import.reject-purge-interval-ms:3600000}")
+    public void purgeRejectFiles() throws IOException {
+        if (!Files.isDirectory(rejectDirectory)) {
+            return;
+        }
+        FileTime cutoff = FileTime.from(Instant.now().minus(Duration.ofHours(rejectRetentionHours)));
+        int deleted = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(rejectDirectory, "import-job-*-rejects.csv")) {
+            for (Path file : files) {
+                if (Files.getLastModifiedTime(file).compareTo(cutoff) < 0 && Files.deleteIfExists(file)) {
+                    deleted++;
+                }
+            }
+        }
+        if (deleted > 0) {
+            log.info("Deleted " + deleted + " import reject files older than " + rejectRetentionHours + " hours");
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running.values().forEach(ImportProgress::cancel);
+        executor.shutdown();
+        if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+            executor.shutdownNow();
+        }
+    }
+
+    private ImportJob createJob(String source, String mode, Long totalBytes, Long maxErrors) {
+        ImportJob job = new ImportJob();
+        job.setSource(source);
+        job.setMode(mode);
+        job.setStatus(ImportJob.PENDING);
+        job.setTotalBytes(totalBytes);
+        job.setMaxErrors(maxErrors != null ? maxErrors : defaultMaxErrors);
+        importJobMapper.save(job);
+        return job;
+    }
+
+    private ResponseEntity<Response> uploadResult(ImportJob job) {
+        if (ImportJob.COMPLETED.equals(job.getStatus())) {
+            return ResponseEntity.status(HttpStatus.OK).body(buildSuccessResponse("Import job finished", job));
+        }
+        boolean cancelled = ImportJob.CANCELLED.equals(job.getStatus());
+        Response response = getErrorResponse(cancelled ? "Import job cancelled"
+                : "Import job failed: " + job.getErrorMessage());
+        response.setData(job);
+        return ResponseEntity.status(cancelled ? HttpStatus.CONFLICT : HttpStatus.UNPROCESSABLE_ENTITY).body(response);
+    }
+
+    /**
+     * Waits for a slot that no upload holds. Executor threads are as many as the slots, so the wait is only
+     * for uploads; interrupted by shutdown, the job ends as cancelled.
+     */
+    private void runQueuedJob(ImportJob job, InputStream inputStream, Integer parallelism, ImportProgress progress) {
+        boolean acquired = false;
+        try {
+            slots.acquire();
+            acquired = true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            progress.cancel();
+        }
+        try {
+            runJob(job, inputStream, parallelism, progress);
+        } finally {
+            if (acquired) {
+                slots.release();
+            }
+        }
+    }
+
+    /**
+     * Progress is counted on the raw bytes, before any decompression, so it lines up with the source size.
+     */
+    private void runJob(ImportJob job, InputStream inputStream, Integer parallelism, ImportProgress progress) {
+        Long id = job.getId();
+        try (InputStream tracked = progress.track(inputStream);
+             CsvRejectWriter rejects = new CsvRejectWriter(rejectFile(id), job.getMaxErrors())) {
+            if (progress.isCancelled()) {
+                importJobMapper.finish(id, ImportJob.CANCELLED, 0, 0, 0, null);
+                return;
+            }
+            importJobMapper.markStarted(id);
+            progress.start();
+            long rows = productImportService.importCsv(DecompressingInputStreams.decompress(tracked), parallelism,
+                    job.getMode(), rejects, progress);
+            importJobMapper.finish(id, ImportJob.COMPLETED, progress.getBytesProcessed(), rows,
+                    progress.getRowsRejected(), null);
+            log.info("Import job " + id + " completed with " + rows + " rows, rejected " + progress.getRowsRejected());
+        } catch (Exception e) {
+            // Nothing is committed on failure, so the final row count of a failed or cancelled job is zero.
+            if (progress.isCancelled()) {
+                log.info("Import job " + id + " cancelled");
+                importJobMapper.finish(id, ImportJob.CANCELLED, progress.getBytesProcessed(), 0,
+                        progress.getRowsRejected(), null);
+            } else {
+                log.warning("Import job " + id + " failed: " + e.getMessage());
+                importJobMapper.finish(id, ImportJob.FAILED, progress.getBytesProcessed(), 0,
+                        progress.getRowsRejected(), e.getMessage());
+            }
+        } finally {
+            // Under the lock the counters never see the job both live and finished, or neither.
+            synchronized (finishLock) {
+                finishedBytes.addAndGet(progress.getBytesProcessed());
+                finishedRows.addAndGet(progress.getRowsProcessed());
+                finishedRejected.addAndGet(progress.getRowsRejected());
+                running.remove(id);
+            }
+        }
+    }
+
+    private double total(ToLongFunction<ImportProgress> live, AtomicLong finished) {
+        synchronized (finishLock) {
+            long total = finished.get();
+            for (ImportProgress progress : running.values()) {
+                total += live.applyAsLong(progress);
+            }
+            return total;
+        }
+    }
+
+    private Path rejectFile(Long id) {
+        return rejectDirectory.resolve("import-job-" + id + "-rejects.csv");
+    }
+
+    private ImportJob withRates(ImportJob job) {
+        ImportProgress progress = running.get(job.getId());
+        if (progress != null && ImportJob.RUNNING.equals(job.getStatus())) {
+            job.setBytesProcessed(progress.getBytesProcessed());
+            job.setRowsProcessed(progress.getRowsProcessed());
+            job.setRowsRejected(progress.getRowsRejected());
+            applyRates(job, progress.getElapsedSeconds());
+        } else if (job.getStartedAt() != null && job.getFinishedAt() != null) {
+            applyRates(job, Duration.between(job.getStartedAt(), job.getFinishedAt()).toMillis() / 1000.0);
+        }
+        return job;
+    }
+
+    private static void applyRates(ImportJob job, double elapsedSeconds) {
+        if (elapsedSeconds <= 0) {
+            return;
+        }
+        double bytesPerSecond = job.getBytesProcessed() / elapsedSeconds;
+        job.setRowsPerSecond(job.getRowsProcessed() / elapsedSeconds);
+        job.setBytesPerSecond(bytesPerSecond);
+        if (ImportJob.COMPLETED.equals(job.getStatus())) {
+            job.setEtaSeconds(0L);
+        } else if (ImportJob.RUNNING.equals(job.getStatus()) && job.getTotalBytes() != null && bytesPerSecond > 0) {
+            long remaining = Math.max(0, job.getTotalBytes() - job.getBytesProcessed());
+            job.setEtaSeconds((long) Math.ceil(remaining / bytesPerSecond));
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.java.test.junior.service;
+
+import com.java.test.junior.util.ProgressInputStream;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Live progress of one running import, shared between the importing thread and status readers.
+ */
+public class ImportProgress {
+    private final AtomicLong bytesProcessed = new AtomicLong();
+    private final AtomicLong rowsProcessed = new AtomicLong();
+    private final AtomicLong rowsRejected = new AtomicLong();
+    private volatile boolean cancelled;
+    private volatile long startedNanos;
+    // Guarded by this.
+    private final List<Runnable> cancelHooks = new ArrayList<>();
+
+    public InputStream track(InputStream inputStream) {
+        return new ProgressInputStream(inputStream, bytesProcessed, this::isCancelled);
+    }
+
+    public void start() {
+        startedNanos = System.nanoTime();
+    }
+
+    public void recordRow() {
+        rowsProcessed.incrementAndGet();
+    }
+
+    public void recordRejected() {
+        rowsRejected.incrementAndGet();
+    }
+
+    /**
+     * Runs {@code hook} when the import is cancelled, or right away if it already is, until the hook is
+     * removed. Hooks interrupt work that never reads the input and so would not notice the cancellation,
+     * such as a statement waiting on the server. Once removal returns, the hook is not running and will
+     * not run.
+     */
+    public synchronized void onCancel(Runnable hook) {
+        if (cancelled) {
+            hook.run();
+        } else {
+            cancelHooks.add(hook);
+        }
+    }
+
+    public synchronized void removeOnCancel(Runnable hook) {
+        cancelHooks.remove(hook);
+    }
+
+    public synchronized void cancel() {
+        cancelled = true;
+        cancelHooks.forEach(Runnable::run);
+        cancelHooks.clear();
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    public boolean isStarted() {
+        return startedNanos != 0;
+    }
+
+    public long getBytesProcessed() {
+        return bytesProcessed.get();
+    }
+
+    public long getRowsProcessed() {
+        return rowsProcessed.get();
+    }
+
+    public long getRowsRejected() {
+        return rowsRejected.get();
+    }
+
+    public double getElapsedSeconds() {
+        return isStarted() ? (System.nanoTime() - startedNanos) / 1_000_000_000.0 : 0;
+    }
+}
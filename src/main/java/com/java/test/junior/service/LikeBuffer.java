@@ -0,0 +1,266 @@
+package com.java.test.junior.service;
+
+import com.java.test.junior.exception.ServiceUnavailableException;
+import com.java.test.junior.mapper.UserProductMapper;
+import com.java.test.junior.model.PendingLike;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.EqualsAndHashCode;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.java.Log;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Write-behind buffer for like toggles, used when {@code product.likes.write-behind.enabled} is set.
+ *
+ * <p>A toggle only flips the pending state of its (user, product) pair in one of several concurrent
+ * maps, so any number of toggles of one pair between flushes end up as a single row write. Flushes run
+ * on a timer and whenever the buffer grows past the flush size. An entry leaves the buffer only once its
+ * state is committed, and only if no toggle changed it meanwhile, so reads that look at the buffer first
+ * always see the latest state. The buffer is drained on shutdown; a crash loses what was not flushed.</p>
+ *
+ * <p>The buffer holds at most {@code product.likes.write-behind.max-pending} pairs. Past that, toggles of
+ * pairs not already pending are turned away until flushes catch up, so a database outage cannot grow it
+ * without bound.</p>
+ */
+@Component
+@Log
+public class LikeBuffer implements MeterBinder {
+    private static final Comparator<PendingLike> WRITE_ORDER =
+            Comparator.comparing(PendingLike::getProductId).thenComparing(PendingLike::getUserId);
+
+    private final UserProductMapper userProductMapper;
+    private final boolean enabled;
+    private final int flushSize;
+    private final int maxPending;
+    private final int counterSlots;
+    private final ConcurrentHashMap<LikeKey, Boolean>[] stripes;
+    // Bumped after a flush commits and before it removes the entries it wrote, one counter per stripe.
+    private final AtomicLong[] flushEpochs;
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    private final ExecutorService flusher = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "like-buffer-flush");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile boolean closed;
+
+    @SuppressWarnings("unchecked")
+    public LikeBuffer(UserProductMapper userProductMapper,
+                      @Value("${product.likes.write-behind.enabled:false}") boolean enabled,
+                      @Value("${product.likes.write-behind.stripes:16}") int stripeCount,
+                      @Value("${product.likes.write-behind.flush-size:1000}") int flushSize,
+                      @Value("${product.likes.write-behind.max-pending:100000}") int maxPending,
+                      @Value("${product.likes.counter-slots:16}") int counterSlots) {
+        this.userProductMapper = userProductMapper;
+        this.enabled = enabled;
+        this.flushSize = flushSize;
+        this.maxPending = maxPending;
+        this.counterSlots = counterSlots;
+        this.stripes = new ConcurrentHashMap[stripeCount];
+        this.flushEpochs = new AtomicLong[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new ConcurrentHashMap<>();
+            flushEpochs[i] = new AtomicLong();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled && !closed;
+    }
+
+    /**
+     * The buffered state of a pair, or {@code null} when nothing is pending for it.
+     */
+    public Boolean getPending(Long userId, Long productId) {
+        LikeKey key = new LikeKey(userId, productId);
+        return stripes[stripeIndex(key)].get(key);
+    }
+
+    /**
+     * Flips the state of a pair and returns the new state. {@code persisted} supplies the committed state
+     * when nothing is pending, or {@code null} when the product does not exist, which is passed through.
+     *
+     * @throws ServiceUnavailableException when the pair is not pending and the buffer is full
+     */
+    public Boolean toggle(Long userId, Long productId, Supplier<Boolean> persisted) {
+        LikeKey key = new LikeKey(userId, productId);
+        int index = stripeIndex(key);
+        ConcurrentHashMap<LikeKey, Boolean> stripe = stripes[index];
+        AtomicLong flushEpoch = flushEpochs[index];
+        Boolean liked = null;
+        while (liked == null) {
+            long epoch = flushEpoch.get();
+            Boolean committed = null;
+            if (!stripe.containsKey(key)) {
+                if (size() >= maxPending) {
+                    throw new ServiceUnavailableException("Too many pending likes, retry later");
+                }
+                // Read outside the map so the database call never holds a bin lock.
+                committed = persisted.get();
+                if (committed == null) {
+                    return null;
+                }
+            }
+            Boolean base = committed;
+            // With nothing pending, the committed state read above is only current if no flush of this stripe
+            // committed since the epoch was read. One that did may have written this pair after the read.
+            liked = stripe.compute(key, (k, pending) -> {
+                if (pending != null) {
+                    return !pending;
+                }
+                return base != null && flushEpoch.get() == epoch ? Boolean.valueOf(!base) : null;
+            });
+        }
+        if (size() >= flushSize && flushRequested.compareAndSet(false, true)) {
+            try {
+                flusher.execute(() -> {
+                    flushRequested.set(false);
+                    flush();
+                });
+            } catch (RejectedExecutionException e) {
+                // Shutting down; the drain writes what is left.
+                flushRequested.set(false);
+            }
+        }
+        return liked;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("product.likes.pending", this, LikeBuffer::size)
+                .description("Like toggles waiting to be written")
+                .register(registry);
+    }
+
+    public int size() {
+        long size = 0;
+        for (ConcurrentHashMap<LikeKey, Boolean> stripe : stripes) {
+            size += stripe.mappingCount();
+        }
+        return (int) Math.min(size, Integer.MAX_VALUE);
+    }
+
+    @Scheduled(fixedDelayString = "${product.likes.write-behind.flush-interval-ms:200}")
+    public void flush() {
+        // A flush already in progress covers this one; toggles it misses stay for the next.
+        if (!flushLock.tryLock()) {
+            return;
+        }
+        try {
+            flushAll();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void drain() {
+        closed = true;
+        flusher.shutdown();
+        flushLock.lock();
+        try {
+            int pending = size();
+            while (pending > 0) {
+                flushAll();
+                int remaining = size();
+                if (remaining >= pending) {
+                    log.severe("Like buffer could not be drained, " + remaining + " toggles lost");
+                    return;
+                }
+                pending = remaining;
+            }
+            log.info("Like buffer drained");
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void flushAll() {
+        for (int i = 0; i < stripes.length; i++) {
+            ConcurrentHashMap<LikeKey, Boolean> stripe = stripes[i];
+            List<PendingLike> batch = new ArrayList<>(Math.min(stripe.size(), flushSize));
+            for (Map.Entry<LikeKey, Boolean> entry : stripe.entrySet()) {
+                LikeKey key = entry.getKey();
+                batch.add(new PendingLike(key.userId, key.productId, entry.getValue()));
+                if (batch.size() == flushSize) {
+                    if (!write(stripe, flushEpochs[i], batch)) {
+                        return;
+                    }
+                    batch = new ArrayList<>(flushSize);
+                }
+            }
+            if (!batch.isEmpty() && !write(stripe, flushEpochs[i], batch)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Writes one batch and removes its entries from the buffer. A batch rejected by a constraint, such as a
+     * user deleted since the toggle, is retried row by row so only the offending rows are dropped. Any
+     * other failure keeps the batch for the next flush and returns {@code false}.
+     */
+    private boolean write(ConcurrentHashMap<LikeKey, Boolean> stripe, AtomicLong flushEpoch,
+                          List<PendingLike> batch) {
+        batch.sort(WRITE_ORDER);
+        try {
+            userProductMapper.applyAll(batch, ThreadLocalRandom.current().nextInt(counterSlots));
+        } catch (DataIntegrityViolationException e) {
+            log.warning("Like batch rejected, retrying row by row: " + e.getMessage());
+            for (PendingLike like : batch) {
+                try {
+                    userProductMapper.applyAll(Collections.singletonList(like),
+                            ThreadLocalRandom.current().nextInt(counterSlots));
+                } catch (DataIntegrityViolationException rowFailure) {
+                    log.warning("Dropping buffered like " + like + ": " + rowFailure.getMessage());
+                } catch (DataAccessException rowFailure) {
+                    log.warning("Like flush failed, will retry: " + rowFailure.getMessage());
+                    return false;
+                }
+                flushEpoch.incrementAndGet();
+                stripe.remove(new LikeKey(like.getUserId(), like.getProductId()), like.isLiked());
+            }
+            return true;
+        } catch (DataAccessException e) {
+            log.warning("Like flush failed, will retry: " + e.getMessage());
+            return false;
+        }
+        flushEpoch.incrementAndGet();
+        for (PendingLike like : batch) {
+            // Only removed if unchanged; a toggle that landed during the write stays for the next flush.
+            stripe.remove(new LikeKey(like.getUserId(), like.getProductId()), like.isLiked());
+        }
+        return true;
+    }
+
+    private int stripeIndex(LikeKey key) {
+        int hash = key.hashCode();
+        return Math.floorMod(hash ^ (hash >>> 16), stripes.length);
+    }
+
+    @EqualsAndHashCode
+    @RequiredArgsConstructor
+    private static final class LikeKey {
+        private final Long userId;
+        private final Long productId;
+    }
+}
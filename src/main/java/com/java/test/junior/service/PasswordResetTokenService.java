@@ -14,4 +14,8 @@ public interface PasswordResetTokenService {
     ResponseEntity<Response> forgotPassword(String email);
 
     ResponseEntity<Response> resetPassword(String token, String newPassword);
+
+    long purgeExpired();
+
+    ResponseEntity<Response> tokenStats();
 }
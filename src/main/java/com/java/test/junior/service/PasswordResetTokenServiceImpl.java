@@ -5,16 +5,21 @@ import com.java.test.junior.exception.TokenExpired;
 import com.java.test.junior.mapper.PasswordResetTokenMapper;
 import com.java.test.junior.model.PasswordResetToken;
 import com.java.test.junior.model.Response;
+import com.java.test.junior.model.TokenPurgeStats;
 import com.java.test.junior.model.User;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.java.Log;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static com.java.test.junior.util.ResponseUtil.buildSuccessResponse;
 
@@ -26,6 +31,14 @@ public class PasswordResetTokenServiceImpl implements  PasswordResetTokenService
     private final UserService userService;
     private final EmailService emailService;
     private final PasswordEncoder passwordEncoder;
+    private final AtomicLong purged = new AtomicLong();
+    private final AtomicLong lastRunPurged = new AtomicLong();
+
+    @Value("${password-reset.purge.batch-size:5000}")
+    private int purgeBatchSize;
+
+    @Value("${password-reset.purge.pause-ms:50}")
+    private long purgePauseMillis;
 
     @Override
     public ResponseEntity<Response> save(PasswordResetToken token) {
@@ -54,7 +67,11 @@ public class PasswordResetTokenServiceImpl implements  PasswordResetTokenService
         return ResponseEntity.status(HttpStatus.OK).body(buildSuccessResponse("Password reset token deleted successfully", null));
     }
 
+    /**
+     * The token and its email commit together; delivery happens in the background.
+     */
     @Override
+    @Transactional
     public ResponseEntity<Response> forgotPassword(String email) {
         log.info("Initiating forgot password logic");
         User user = userService.findByEmail(email);
@@ -89,4 +106,44 @@ public class PasswordResetTokenServiceImpl implements  PasswordResetTokenService
         userService.updatePasswordByEmail(email, passwordEncoder.encode(newPassword));
         return ResponseEntity.status(HttpStatus.OK).body(buildSuccessResponse("Password reset successfully", null));
     }
+
+    /**
+     * Deletes expired tokens in bounded batches, each in its own short transaction, pausing in between so
+     * a large backlog is worked off without long locks or a burst of WAL.
+     */
+    @Override
+    @Scheduled(fixedDelayString = "${password-reset.purge.interval-ms:300000}")
+    public long purgeExpired() {
+        long start = System.currentTimeMillis();
+        long total = 0;
+        int deleted;
+        do {
+            deleted = passwordResetTokenMapper.purgeExpired(purgeBatchSize);
+            total += deleted;
+            purged.addAndGet(deleted);
+            if (deleted == purgeBatchSize && purgePauseMillis > 0) {
+                try {
+                    Thread.sleep(purgePauseMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        } while (deleted == purgeBatchSize);
+        lastRunPurged.set(total);
+        if (total > 0) {
+            log.info("Purged " + total + " expired password reset tokens in " + (System.currentTimeMillis() - start)
+                    + " ms");
+        }
+        return total;
+    }
+
+    @Override
+    public ResponseEntity<Response> tokenStats() {
+        TokenPurgeStats stats = passwordResetTokenMapper.countTokens();
+        stats.setPurged(purged.get());
+        stats.setLastRunPurged(lastRunPurged.get());
+        return ResponseEntity.status(HttpStatus.OK)
+                .body(buildSuccessResponse("Password reset token statistics retrieved successfully", stats));
+    }
 }
@@ -0,0 +1,16 @@
+package com.java.test.junior.service;
+
+import com.java.test.junior.model.ProductDTO;
+import com.java.test.junior.model.ProductUpdateDTO;
+import com.java.test.junior.model.Response;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+
+public interface ProductBatchService {
+    ResponseEntity<Response> createProducts(List<ProductDTO> productDTOs);
+
+    ResponseEntity<Response> updateProducts(List<ProductUpdateDTO> productDTOs);
+
+    ResponseEntity<Response> deleteProducts(List<Long> ids);
+}
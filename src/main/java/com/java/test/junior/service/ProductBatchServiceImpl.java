@@ -0,0 +1,301 @@
+package com.java.test.junior.service;
+
+import com.java.test.junior.mapper.ProductMapper;
+import com.java.test.junior.mapper.UserProductMapper;
+import com.java.test.junior.model.*;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.java.Log;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+
+import static com.java.test.junior.util.ResponseUtil.buildSuccessResponse;
+import static com.java.test.junior.util.SecurityUtil.getCurrentUser;
+import static com.java.test.junior.util.TransactionUtil.afterCommit;
+
+/**
+ * Applies many product changes in one transaction with a few multi-row statements instead of one round
+ * trip per product. Items that cannot be applied are reported individually and do not fail the batch.
+ *
+ * <p>Caches and in-memory indexes are only told about the changes once the transaction commits. Evicting
+ * earlier would let a concurrent read cache the old row again before the commit, and a rollback would
+ * leave the indexes describing writes that never happened.</p>
+ */
+@Service
+@RequiredArgsConstructor
+@Log
+public class ProductBatchServiceImpl implements ProductBatchService {
+    // Keeps every statement well below the 65535 bind parameters PostgreSQL accepts.
+    private static final int CHUNK_SIZE = 1000;
+
+    private final ProductMapper productMapper;
+    private final UserProductMapper userProductMapper;
+    private final ProductCountService productCountService;
+    private final ProductSuggestService productSuggestService;
+    private final ProductCache productCache;
+    private final ProductLikeService productLikeService;
+
+    @Override
+    @Transactional
+    public ResponseEntity<Response> createProducts(List<ProductDTO> productDTOs) {
+        log.info("Creating " + productDTOs.size() + " products in batch");
+        Long userId = getCurrentUser().getId();
+        List<Product> products = new ArrayList<>(productDTOs.size());
+        for (ProductDTO productDTO : productDTOs) {
+            Product product = new Product();
+            product.setName(productDTO.getName());
+            product.setPrice(productDTO.getPrice());
+            product.setDescription(productDTO.getDescription());
+            product.setUserId(userId);
+            products.add(product);
+        }
+
+        // Names that already exist, in the table or earlier in the batch, are skipped by ON CONFLICT DO NOTHING.
+        Map<String, Long> created = new HashMap<>();
+        for (List<Product> chunk : chunks(products)) {
+            for (Product product : productMapper.saveAll(chunk)) {
+                created.put(product.getName(), product.getId());
+            }
+        }
+
+        List<BatchItemResult> results = new ArrayList<>(products.size());
+        List<String> createdNames = new ArrayList<>(created.size());
+        for (int i = 0; i < products.size(); i++) {
+            String name = products.get(i).getName();
+            Long id = created.remove(name);
+            if (id != null) {
+                results.add(new BatchItemResult(i, id, BatchItemResult.CREATED, null));
+                createdNames.add(name);
+            } else {
+                results.add(new BatchItemResult(i, null, BatchItemResult.CONFLICT,
+                        "Product already exists with name: " + name));
+            }
+        }
+        afterCommit(() -> {
+            productCountService.invalidate();
+            productSuggestService.addAll(createdNames);
+        });
+        return ResponseEntity.status(HttpStatus.OK)
+                .body(buildSuccessResponse("Batch processed successfully", results));
+    }
+
+    @Override
+    @Transactional
+    public ResponseEntity<Response> updateProducts(List<ProductUpdateDTO> productDTOs) {
+        log.info("Updating " + productDTOs.size() + " products in batch");
+        Long userId = getCurrentUser().getId();
+        Map<Long, Product> existing = findExisting(productDTOs.stream().map(ProductUpdateDTO::getId).toList());
+
+        BatchItemResult[] results = new BatchItemResult[productDTOs.size()];
+        Map<Integer, Product> candidates = new LinkedHashMap<>();
+        Set<Long> seen = new HashSet<>();
+        for (int i = 0; i < productDTOs.size(); i++) {
+            ProductUpdateDTO productDTO = productDTOs.get(i);
+            BatchItemResult rejected = checkItem(i, productDTO.getId(), existing, userId, seen);
+            if (rejected != null) {
+                results[i] = rejected;
+                continue;
+            }
+            Product product = new Product();
+            product.setId(productDTO.getId());
+            product.setName(productDTO.getName());
+            product.setPrice(productDTO.getPrice());
+            product.setDescription(productDTO.getDescription());
+            candidates.put(i, product);
+        }
+        Map<String, Product> holders = findHolders(candidates.values());
+        rejectNameConflicts(candidates, existing, holders, results);
+
+        List<Long> releases = new ArrayList<>();
+        for (Product product : candidates.values()) {
+            Product holder = isRename(product, existing) ? holders.get(product.getName()) : null;
+            if (holder != null) {
+                releases.add(holder.getId());
+            }
+        }
+        for (List<Long> chunk : chunks(releases)) {
+            productMapper.releaseNames(chunk, userId);
+        }
+        Set<Long> updated = new HashSet<>();
+        for (List<Product> chunk : chunks(new ArrayList<>(candidates.values()))) {
+            updated.addAll(productMapper.updateAll(chunk, userId));
+        }
+
+        List<Product> updates = new ArrayList<>(updated.size());
+        List<String> oldNames = new ArrayList<>();
+        List<String> newNames = new ArrayList<>();
+        for (Map.Entry<Integer, Product> candidate : candidates.entrySet()) {
+            Product product = candidate.getValue();
+            results[candidate.getKey()] = applied(candidate.getKey(), product.getId(), updated,
+                    BatchItemResult.UPDATED);
+            if (!updated.contains(product.getId())) {
+                continue;
+            }
+            updates.add(product);
+            if (isRename(product, existing)) {
+                oldNames.add(existing.get(product.getId()).getName());
+                newNames.add(product.getName());
+            }
+        }
+        afterCommit(() -> {
+            for (Product product : updates) {
+                productCache.evict(product.getId());
+            }
+            // All removals first, so names swapped between products within the batch stay suggested.
+            productSuggestService.removeAll(oldNames);
+            productSuggestService.addAll(newNames);
+        });
+        return ResponseEntity.status(HttpStatus.OK)
+                .body(buildSuccessResponse("Batch processed successfully", Arrays.asList(results)));
+    }
+
+    @Override
+    @Transactional
+    public ResponseEntity<Response> deleteProducts(List<Long> ids) {
+        log.info("Deleting " + ids.size() + " products in batch");
+        Long userId = getCurrentUser().getId();
+        Map<Long, Product> existing = findExisting(ids);
+
+        List<BatchItemResult> results = new ArrayList<>(ids.size());
+        List<Long> candidates = new ArrayList<>();
+        Set<Long> seen = new HashSet<>();
+        for (int i = 0; i < ids.size(); i++) {
+            BatchItemResult rejected = checkItem(i, ids.get(i), existing, userId, seen);
+            results.add(rejected);
+            if (rejected == null) {
+                candidates.add(ids.get(i));
+            }
+        }
+
+        Set<Long> deleted = new HashSet<>();
+        for (List<Long> chunk : chunks(candidates)) {
+            userProductMapper.deleteByProductIds(chunk, userId);
+            deleted.addAll(productMapper.deleteAllByIds(chunk, userId));
+        }
+        List<Long> deletions = new ArrayList<>(deleted.size());
+        for (int i = 0; i < ids.size(); i++) {
+            if (results.get(i) == null) {
+                results.set(i, applied(i, ids.get(i), deleted, BatchItemResult.DELETED));
+                if (deleted.contains(ids.get(i))) {
+                    deletions.add(ids.get(i));
+                }
+            }
+        }
+        List<String> deletedNames = deletions.stream().map(id -> existing.get(id).getName()).toList();
+        afterCommit(() -> {
+            for (Long id : deletions) {
+                productCache.evict(id);
+                productLikeService.remove(id);
+            }
+            productCountService.invalidate();
+            productSuggestService.removeAll(deletedNames);
+        });
+        return ResponseEntity.status(HttpStatus.OK)
+                .body(buildSuccessResponse("Batch processed successfully", results));
+    }
+
+    private Map<Long, Product> findExisting(List<Long> ids) {
+        Map<Long, Product> existing = new HashMap<>();
+        for (List<Long> chunk : chunks(new ArrayList<>(new LinkedHashSet<>(ids)))) {
+            for (Product product : productMapper.findAllByIds(chunk)) {
+                existing.put(product.getId(), product);
+            }
+        }
+        return existing;
+    }
+
+    private Map<String, Product> findHolders(Collection<Product> products) {
+        Map<String, Product> holders = new HashMap<>();
+        List<String> names = products.stream().map(Product::getName).distinct().toList();
+        for (List<String> chunk : chunks(names)) {
+            for (Product holder : productMapper.findAllByNames(chunk)) {
+                holders.put(holder.getName(), holder);
+            }
+        }
+        return holders;
+    }
+
+    /**
+     * Drops the renames that would break the unique name: onto a name kept by a product the batch does not
+     * rename away, or onto a name an earlier item of the batch already claims. Dropping one can leave its
+     * name taken for another, so it repeats until nothing changes. A name taken concurrently after this
+     * check still fails the whole batch.
+     */
+    private static void rejectNameConflicts(Map<Integer, Product> candidates, Map<Long, Product> existing,
+                                            Map<String, Product> holders, BatchItemResult[] results) {
+        boolean rejected = true;
+        while (rejected) {
+            rejected = false;
+            Map<Long, String> targetsById = new HashMap<>();
+            for (Product product : candidates.values()) {
+                targetsById.put(product.getId(), product.getName());
+            }
+            Set<String> claimed = new HashSet<>();
+            Iterator<Map.Entry<Integer, Product>> iterator = candidates.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<Integer, Product> candidate = iterator.next();
+                Product product = candidate.getValue();
+                if (!isRename(product, existing)) {
+                    continue;
+                }
+                String name = product.getName();
+                Product holder = holders.get(name);
+                String message = null;
+                if (!claimed.add(name)) {
+                    message = "Product name appears more than once in batch: " + name;
+                } else if (holder != null && name.equals(targetsById.getOrDefault(holder.getId(), name))) {
+                    // Held by a product outside the batch, or by one the batch leaves with this name.
+                    message = "Product already exists with name: " + name;
+                }
+                if (message != null) {
+                    results[candidate.getKey()] = new BatchItemResult(candidate.getKey(), product.getId(),
+                            BatchItemResult.CONFLICT, message);
+                    iterator.remove();
+                    rejected = true;
+                }
+            }
+        }
+    }
+
+    private static boolean isRename(Product product, Map<Long, Product> existing) {
+        return !existing.get(product.getId()).getName().equals(product.getName());
+    }
+
+    /**
+     * The statements only touch rows the user still owns, so an item that was deleted or handed to someone
+     * else since it was checked comes back missing from their result.
+     */
+    private static BatchItemResult applied(int index, Long id, Set<Long> applied, String status) {
+        if (!applied.contains(id)) {
+            return new BatchItemResult(index, id, BatchItemResult.NOT_FOUND, "Product not found with ID: " + id);
+        }
+        return new BatchItemResult(index, id, status, null);
+    }
+
+    private static BatchItemResult checkItem(int index, Long id, Map<Long, Product> existing, Long userId,
+                                             Set<Long> seen) {
+        Product product = existing.get(id);
+        if (product == null) {
+            return new BatchItemResult(index, id, BatchItemResult.NOT_FOUND, "Product not found with ID: " + id);
+        }
+        if (!product.getUserId().equals(userId)) {
+            return new BatchItemResult(index, id, BatchItemResult.FORBIDDEN,
+                    "User with id " + userId + " doesn't have access to product with ID: " + id);
+        }
+        if (!seen.add(id)) {
+            return new BatchItemResult(index, id, BatchItemResult.CONFLICT, "Product appears more than once in batch");
+        }
+        return null;
+    }
+
+    private static <T> List<List<T>> chunks(List<T> items) {
+        List<List<T>> chunks = new ArrayList<>();
+        for (int from = 0; from < items.size(); from += CHUNK_SIZE) {
+            chunks.add(items.subList(from, Math.min(from + CHUNK_SIZE, items.size())));
+        }
+        return chunks;
+    }
+}
@@ -0,0 +1,149 @@
+package com.java.test.junior.service;
+
+import com.java.test.junior.model.CacheStats;
+import com.java.test.junior.model.Product;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Bounded LRU read-through cache of products by id and by name. Entries expire after a fixed TTL,
+ * which bounds staleness from writes on other nodes; writes on this node evict precisely.
+ *
+ * <p>Every eviction bumps a generation counter. A load that started before an eviction is not stored,
+ * so a slow read racing with an update can never put the old row back.</p>
+ */
+@Component
+public class ProductCache {
+    private final long ttlMillis;
+    private final int maxEntries;
+    private final Map<Long, Entry> entries;
+    private final Map<String, Long> idsByName = new HashMap<>();
+    private long generation;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public ProductCache(@Value("${product.cache.ttl-seconds:60}") long ttlSeconds,
+                        @Value("${product.cache.max-entries:10000}") int maxEntries) {
+        this.ttlMillis = ttlSeconds * 1000;
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                if (size() <= ProductCache.this.maxEntries) {
+                    return false;
+                }
+                idsByName.remove(eldest.getValue().product.getName());
+                evictions++;
+                return true;
+            }
+        };
+    }
+
+    public Product getById(Long id, Function<Long, Product> loader) {
+        long loadGeneration;
+        synchronized (this) {
+            Product cached = lookup(id);
+            if (cached != null) {
+                return cached;
+            }
+            loadGeneration = generation;
+        }
+        Product product = loader.apply(id);
+        put(product, loadGeneration);
+        return product;
+    }
+
+    public Product getByName(String name, Function<String, Product> loader) {
+        long loadGeneration;
+        synchronized (this) {
+            Long id = idsByName.get(name);
+            Product cached = id != null ? lookup(id) : null;
+            if (id == null) {
+                misses++;
+            }
+            if (cached != null) {
+                return cached;
+            }
+            loadGeneration = generation;
+        }
+        Product product = loader.apply(name);
+        put(product, loadGeneration);
+        return product;
+    }
+
+    public synchronized void evict(Long id) {
+        generation++;
+        Entry entry = entries.remove(id);
+        if (entry != null) {
+            idsByName.remove(entry.product.getName());
+        }
+    }
+
+    public synchronized void evictUser(Long userId) {
+        generation++;
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            Product product = iterator.next().product;
+            if (product.getUserId().equals(userId)) {
+                idsByName.remove(product.getName());
+                iterator.remove();
+            }
+        }
+    }
+
+    public synchronized void clear() {
+        generation++;
+        entries.clear();
+        idsByName.clear();
+    }
+
+    public synchronized CacheStats stats() {
+        long lookups = hits + misses;
+        return new CacheStats(entries.size(), maxEntries, hits, misses, evictions,
+                lookups == 0 ? 0 : (double) hits / lookups);
+    }
+
+    private Product lookup(Long id) {
+        Entry entry = entries.get(id);
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        if (entry.expiresAt < System.currentTimeMillis()) {
+            entries.remove(id);
+            idsByName.remove(entry.product.getName());
+            misses++;
+            return null;
+        }
+        hits++;
+        return entry.product;
+    }
+
+    private synchronized void put(Product product, long loadGeneration) {
+        if (product == null || ttlMillis <= 0 || loadGeneration != generation) {
+            return;
+        }
+        Entry previous = entries.put(product.getId(), new Entry(product, System.currentTimeMillis() + ttlMillis));
+        if (previous != null && !previous.product.getName().equals(product.getName())) {
+            idsByName.remove(previous.product.getName());
+        }
+        idsByName.put(product.getName(), product.getId());
+    }
+
+    private static final class Entry {
+        private final Product product;
+        private final long expiresAt;
+
+        private Entry(Product product, long expiresAt) {
+            this.product = product;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
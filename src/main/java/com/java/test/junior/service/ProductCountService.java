@@ -0,0 +1,13 @@
+package com.java.test.junior.service;
+
+public interface ProductCountService {
+    String EXACT = "exact";
+    String ESTIMATE = "estimate";
+    String NONE = "none";
+
+    Long count(String mode);
+
+    void invalidate();
+
+    void clear();
+}
@@ -0,0 +1,139 @@
+package com.java.test.junior.service;
+
+import com.java.test.junior.mapper.ProductMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.java.Log;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Total product count for listings. The exact count is a full scan, so it is cached for the TTL. The
+ * estimate comes from the planner statistics in pg_class and costs a single catalog lookup; when the
+ * table has no statistics yet there is no estimate, rather than a scan.
+ *
+ * <p>Only one scan runs at a time: callers that find no usable count wait for the scan in flight instead
+ * of starting their own. A write on this node marks the cached count stale rather than dropping it, so
+ * under steady writes listings keep getting the last count, at most one scan behind, while a single
+ * refresh runs in the background. A count whose scan started before a write is cached as stale too.</p>
+ */
+@Service
+@RequiredArgsConstructor
+@Log
+public class ProductCountServiceImpl implements ProductCountService {
+    private final ProductMapper productMapper;
+    private final ExecutorService refresher = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "product-count-refresh");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Value("${product.count.cache-ttl-seconds:300}")
+    private long cacheTtlSeconds;
+
+    private volatile CachedCount cachedCount;
+    // Guarded by this.
+    private long generation;
+    private CompletableFuture<Long> refresh;
+
+    @Override
+    public Long count(String mode) {
+        if (EXACT.equals(mode)) {
+            return exactCount();
+        }
+        if (ESTIMATE.equals(mode)) {
+            return productMapper.estimateCount();
+        }
+        return null;
+    }
+
+    @Override
+    public synchronized void invalidate() {
+        generation++;
+        CachedCount current = cachedCount;
+        if (current != null && !current.stale) {
+            cachedCount = new CachedCount(current.value, current.expiresAt, true);
+        }
+    }
+
+    @Override
+    public synchronized void clear() {
+        generation++;
+        cachedCount = null;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refresher.shutdownNow();
+    }
+
+    private long exactCount() {
+        CachedCount current = cachedCount;
+        if (current != null && !current.stale && current.expiresAt > System.currentTimeMillis()) {
+            return current.value;
+        }
+        CompletableFuture<Long> pending;
+        synchronized (this) {
+            current = cachedCount;
+            boolean live = current != null && current.expiresAt > System.currentTimeMillis();
+            if (live && !current.stale) {
+                return current.value;
+            }
+            pending = refresh();
+            if (live) {
+                return current.value;
+            }
+        }
+        try {
+            return pending.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * The scan in flight, or a new one. Must hold the lock.
+     */
+    private CompletableFuture<Long> refresh() {
+        if (refresh != null) {
+            return refresh;
+        }
+        long countGeneration = generation;
+        CompletableFuture<Long> scan = CompletableFuture.supplyAsync(productMapper::countAll, refresher);
+        refresh = scan;
+        // Runs right here, clearing refresh again, when the scan has already finished.
+        scan.whenComplete((value, error) -> finish(countGeneration, value, error));
+        return scan;
+    }
+
+    private synchronized void finish(long countGeneration, Long value, Throwable error) {
+        refresh = null;
+        if (error != null) {
+            log.warning("Exact product count failed: " + error.getMessage());
+            return;
+        }
+        boolean stale = countGeneration != generation;
+        log.info("Exact product count refreshed: " + value + (stale ? ", already stale" : ""));
+        cachedCount = new CachedCount(value, System.currentTimeMillis() + cacheTtlSeconds * 1000, stale);
+    }
+
+    private static final class CachedCount {
+        private final long value;
+        private final long expiresAt;
+        private final boolean stale;
+
+        private CachedCount(long value, long expiresAt, boolean stale) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+            this.stale = stale;
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.java.test.junior.service;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public interface ProductExportService {
+    ResponseEntity<StreamingResponseBody> exportProducts(Long userId, BigDecimal minPrice, BigDecimal maxPrice,
+                                                         LocalDateTime updatedSince, boolean gzip);
+}
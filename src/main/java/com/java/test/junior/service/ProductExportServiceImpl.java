@@ -0,0 +1,102 @@
+package com.java.test.junior.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.java.Log;
+import org.postgresql.copy.CopyManager;
+import org.postgresql.core.BaseConnection;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streams the product table out with {@code COPY ... TO STDOUT}. The driver hands over one row at a time
+ * and each is written straight to the response, so memory use does not depend on the size of the export.
+ */
+@Service
+@RequiredArgsConstructor
+@Log
+public class ProductExportServiceImpl implements ProductExportService {
+    private static final String EXPORT_COLUMNS = "id,name,price,description,user_id,created_at,updated_at";
+    private static final int GZIP_BUFFER_SIZE = 1 << 16;
+
+    private final DataSource dataSource;
+
+    @Override
+    public ResponseEntity<StreamingResponseBody> exportProducts(Long userId, BigDecimal minPrice, BigDecimal maxPrice,
+                                                                LocalDateTime updatedSince, boolean gzip) {
+        String sql = buildCopySql(userId, minPrice, maxPrice, updatedSince);
+        log.info("Exporting products with: " + sql);
+
+        StreamingResponseBody body = outputStream -> {
+            long start = System.currentTimeMillis();
+            long rows;
+            if (gzip) {
+                GZIPOutputStream gzipStream = new GZIPOutputStream(outputStream, GZIP_BUFFER_SIZE);
+                rows = copyOut(sql, gzipStream);
+                gzipStream.finish();
+            } else {
+                rows = copyOut(sql, outputStream);
+            }
+            log.info("Exported " + rows + " products in " + (System.currentTimeMillis() - start) + " ms");
+        };
+
+        String fileName = gzip ? "products.csv.gz" : "products.csv";
+        return ResponseEntity.status(HttpStatus.OK)
+                .contentType(gzip ? new MediaType("application", "gzip")
+                        : new MediaType("text", "csv", StandardCharsets.UTF_8))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
+                .body(body);
+    }
+
+    private long copyOut(String sql, OutputStream outputStream) throws IOException {
+        // The body runs after the controller has returned, outside any transaction, so it takes its own connection.
+        try (Connection conn = dataSource.getConnection()) {
+            return new CopyManager(conn.unwrap(BaseConnection.class)).copyOut(sql, outputStream);
+        } catch (SQLException e) {
+            throw new IOException("Product export failed: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * COPY does not take bind parameters, so filter values are rendered into the statement. Every filter is
+     * a number or a timestamp formatted here, never free text from the request.
+     */
+    private static String buildCopySql(Long userId, BigDecimal minPrice, BigDecimal maxPrice,
+                                       LocalDateTime updatedSince) {
+        List<String> conditions = new ArrayList<>();
+        if (userId != null) {
+            conditions.add("user_id = " + userId);
+        }
+        if (minPrice != null) {
+            conditions.add("price >= " + minPrice.toPlainString());
+        }
+        if (maxPrice != null) {
+            conditions.add("price <= " + maxPrice.toPlainString());
+        }
+        if (updatedSince != null) {
+            conditions.add("updated_at >= TIMESTAMP '"
+                    + updatedSince.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME) + "'");
+        }
+
+        String source = conditions.isEmpty()
+                ? "product(" + EXPORT_COLUMNS + ")"
+                : "(SELECT " + EXPORT_COLUMNS + " FROM product WHERE " + String.join(" AND ", conditions) + ")";
+        return "COPY " + source + " TO STDOUT WITH (FORMAT csv, HEADER true)";
+    }
+}
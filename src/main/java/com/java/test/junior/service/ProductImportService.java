@@ -0,0 +1,15 @@
+package com.java.test.junior.service;
+
+import com.java.test.junior.util.CsvRejectWriter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.SQLException;
+
+public interface ProductImportService {
+    String INSERT = "insert";
+    String UPSERT = "upsert";
+
+    long importCsv(InputStream inputStream, Integer parallelism, String mode, CsvRejectWriter rejects,
+                   ImportProgress progress) throws SQLException, IOException;
+}
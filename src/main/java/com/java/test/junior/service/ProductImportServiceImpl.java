@@ -0,0 +1,330 @@
+package com.java.test.junior.service;
+
+import com.java.test.junior.mapper.ProductImportMapper;
+import com.java.test.junior.util.CsvColumnAppendingReader;
+import com.java.test.junior.util.CsvRecordReader;
+import com.java.test.junior.util.CsvRejectWriter;
+import com.java.test.junior.util.ProductCsvValidator;
+import com.java.test.junior.util.ReportingUtf8Reader;
+import com.java.test.junior.util.TransactionUtil;
+import com.java.test.junior.util.ValidatingCsvRecordReader;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.java.Log;
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.CopyManager;
+import org.postgresql.core.BaseConnection;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+
+import javax.sql.DataSource;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+
+@Service
+@RequiredArgsConstructor
+@Log
+public class ProductImportServiceImpl implements ProductImportService {
+    private static final String COPY_COLUMNS = "name,price,description,user_id,created_at,updated_at";
+    private static final String STAGING_COLUMNS = COPY_COLUMNS + ",record_number";
+    private static final int COPY_BUFFER_SIZE = 1 << 16;
+    private static final int CHUNK_SIZE = 1 << 20;
+    // Past this many names, rebuilding the suggest index from the table is cheaper than holding them all.
+    private static final int SUGGEST_BUFFER_SIZE = 100_000;
+    @SuppressWarnings("StringOperationCanBeSimplified")
+    private static final String END_OF_INPUT = new String();
+
+    private final UserService userService;
+    private final DataSource dataSource;
+    private final ProductImportMapper productImportMapper;
+    private final ProductCountService productCountService;
+    private final ProductSuggestService productSuggestService;
+    private final ProductCache productCache;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${product.import.parallelism:1}")
+    private int defaultParallelism;
+
+    @Value("${product.import.max-parallelism:4}")
+    private int maxParallelism;
+
+    @Override
+    public long importCsv(InputStream inputStream, Integer parallelism, String mode, CsvRejectWriter rejects,
+                          ImportProgress progress) throws SQLException, IOException {
+        int workers = Math.max(1, Math.min(parallelism != null ? parallelism : defaultParallelism, maxParallelism));
+        boolean upsert = UPSERT.equals(mode);
+        log.info("Loading products from CSV with parallelism: " + workers + ", mode: " + (upsert ? UPSERT : INSERT));
+        long adminUserId = userService.findByRole("ADMIN").getId();
+
+        String now = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
+        String suffix = "," + adminUserId + "," + now + "," + now;
+        // Names reach the suggest index only once the import commits, so a failed or cancelled import never
+        // suggests products that do not exist. A large import is not held in memory: past the buffer size the
+        // names are dropped and the index is rebuilt from the table instead.
+        List<String> names = new ArrayList<>();
+        boolean[] overflowed = new boolean[1];
+        Consumer<String> recordListener = record -> {
+            if (!overflowed[0]) {
+                names.add(firstCsvField(record));
+                if (names.size() > SUGGEST_BUFFER_SIZE) {
+                    names.clear();
+                    overflowed[0] = true;
+                }
+            }
+            progress.recordRow();
+        };
+        Runnable afterCommit = () -> {
+            productCountService.invalidate();
+            if (overflowed[0]) {
+                productSuggestService.rebuild();
+            } else {
+                productSuggestService.addAll(names);
+            }
+            if (upsert) {
+                // Plain inserts only add rows, but a merge may have changed any cached product.
+                productCache.clear();
+            }
+        };
+
+        long start = System.currentTimeMillis();
+        long rows;
+        // Invalid records, including ones that are not valid UTF-8, are diverted to the reject file here, so
+        // only rows the table accepts reach COPY.
+        try (CsvRecordReader records = new ValidatingCsvRecordReader(
+                new ReportingUtf8Reader(inputStream), ProductCsvValidator::validate,
+                (recordNumber, reason, record) -> {
+                    progress.recordRejected();
+                    rejects.reject(recordNumber, reason, record);
+                })) {
+            records.readRecord();
+            if (workers == 1 && !upsert) {
+                Reader reader = new CsvColumnAppendingReader(records, COPY_COLUMNS, suffix, recordListener);
+                rows = write(progress, () -> copy(reader), afterCommit);
+            } else {
+                rows = stagedCopy(records, suffix, recordListener, workers, upsert, progress, afterCommit);
+            }
+        }
+        log.info("Copied " + rows + " products in " + (System.currentTimeMillis() - start) + " ms, rejected "
+                + rejects.getRejected());
+        return rows;
+    }
+
+    /**
+     * Runs the statement that writes into {@code product} in a transaction of its own, which a cancelled
+     * import never commits. Cancelling interrupts the statement on the server, where it may be blocked on
+     * a lock or deep in a merge without reading any input, and an import cancelled after the statement
+     * finished is rolled back instead of committed. {@code afterCommit} runs only once the rows are committed.
+     */
+    private long write(ImportProgress progress, ProductWrite write, Runnable afterCommit)
+            throws SQLException, IOException {
+        TransactionStatus transaction = transactionManager.getTransaction(TransactionDefinition.withDefaults());
+        long rows;
+        try {
+            Connection conn = DataSourceUtils.getConnection(dataSource);
+            Runnable cancelStatement = cancelStatement(conn);
+            progress.onCancel(cancelStatement);
+            try {
+                checkCancelled(progress);
+                rows = write.run();
+                TransactionUtil.afterCommit(afterCommit);
+            } finally {
+                progress.removeOnCancel(cancelStatement);
+                DataSourceUtils.releaseConnection(conn, dataSource);
+            }
+            checkCancelled(progress);
+        } catch (SQLException | IOException | RuntimeException | Error e) {
+            transactionManager.rollback(transaction);
+            throw e;
+        }
+        transactionManager.commit(transaction);
+        return rows;
+    }
+
+    private static void checkCancelled(ImportProgress progress) throws InterruptedIOException {
+        if (progress.isCancelled()) {
+            throw new InterruptedIOException("Import cancelled");
+        }
+    }
+
+    /**
+     * Asks the server to cancel whatever statement is running on {@code conn}.
+     */
+    private static Runnable cancelStatement(Connection conn) throws SQLException {
+        BaseConnection pgConnection = conn.unwrap(BaseConnection.class);
+        return () -> {
+            try {
+                pgConnection.cancelQuery();
+            } catch (SQLException e) {
+                log.warning("Failed to cancel import statement: " + e.getMessage());
+            }
+        };
+    }
+
+    private long copy(Reader reader) throws SQLException, IOException {
+        Connection conn = DataSourceUtils.getConnection(dataSource);
+        try {
+            CopyManager copyManager = new CopyManager(conn.unwrap(BaseConnection.class));
+            return copyManager.copyIn(
+                    "COPY product(" + COPY_COLUMNS + ") FROM STDIN WITH (FORMAT csv, HEADER true)",
+                    reader,
+                    COPY_BUFFER_SIZE
+            );
+        } finally {
+            DataSourceUtils.releaseConnection(conn, dataSource);
+        }
+    }
+
+    /**
+     * Splits the input into chunks of whole records and loads them through one or more concurrent COPY
+     * streams, each on its own pooled connection, into an unlogged staging table. The rows reach
+     * {@code product} in a single statement, a plain INSERT ... SELECT or a merge by name when
+     * {@code upsert} is set, so the import is all-or-nothing. Each staged row carries its record number
+     * in the source, so a merge can tell which of several rows with the same name came last.
+     */
+    private long stagedCopy(CsvRecordReader records, String suffix, Consumer<String> recordListener,
+                            int workers, boolean upsert, ImportProgress progress, Runnable afterCommit)
+            throws SQLException, IOException {
+        String stagingTable = "product_import_" + UUID.randomUUID().toString().replace("-", "");
+        productImportMapper.createStagingTable(stagingTable);
+        ExecutorService executor = Executors.newFixedThreadPool(workers);
+        try {
+            BlockingQueue<String> chunks = new ArrayBlockingQueue<>(workers * 2);
+            List<Future<Long>> copies = new ArrayList<>();
+            for (int i = 0; i < workers; i++) {
+                copies.add(executor.submit(() -> copyChunks(stagingTable, chunks, progress)));
+            }
+
+            StringBuilder chunk = new StringBuilder(CHUNK_SIZE + 4096);
+            String record;
+            while ((record = records.readRecord()) != null) {
+                recordListener.accept(record);
+                chunk.append(record).append(suffix).append(',').append(records.getRecordNumber()).append('\n');
+                if (chunk.length() >= CHUNK_SIZE) {
+                    enqueue(chunks, chunk.toString(), copies);
+                    chunk.setLength(0);
+                }
+            }
+            if (chunk.length() > 0) {
+                enqueue(chunks, chunk.toString(), copies);
+            }
+            for (int i = 0; i < workers; i++) {
+                enqueue(chunks, END_OF_INPUT, copies);
+            }
+
+            long staged = 0;
+            for (Future<Long> copy : copies) {
+                staged += await(copy);
+            }
+            log.info("Staged " + staged + " products in " + stagingTable);
+            return write(progress, () -> upsert
+                    ? productImportMapper.upsertFromStaging(stagingTable)
+                    : productImportMapper.insertFromStaging(stagingTable), afterCommit);
+        } finally {
+            executor.shutdownNow();
+            productImportMapper.dropStagingTable(stagingTable);
+        }
+    }
+
+    private long copyChunks(String stagingTable, BlockingQueue<String> chunks, ImportProgress progress)
+            throws SQLException, InterruptedException {
+        try (Connection conn = dataSource.getConnection()) {
+            Runnable cancelStatement = cancelStatement(conn);
+            progress.onCancel(cancelStatement);
+            try {
+                CopyIn copyIn = new CopyManager(conn.unwrap(BaseConnection.class))
+                        .copyIn("COPY " + stagingTable + "(" + STAGING_COLUMNS + ") FROM STDIN WITH (FORMAT csv)");
+                try {
+                    String chunk;
+                    while ((chunk = chunks.take()) != END_OF_INPUT) {
+                        byte[] bytes = chunk.getBytes(StandardCharsets.UTF_8);
+                        copyIn.writeToCopy(bytes, 0, bytes.length);
+                    }
+                    return copyIn.endCopy();
+                } finally {
+                    if (copyIn.isActive()) {
+                        copyIn.cancelCopy();
+                    }
+                }
+            } finally {
+                progress.removeOnCancel(cancelStatement);
+            }
+        }
+    }
+
+    /**
+     * Hands a chunk to the workers. A worker that finishes before the end of input has failed, so
+     * its error is surfaced instead of waiting forever on a queue nobody drains.
+     */
+    private void enqueue(BlockingQueue<String> chunks, String chunk, List<Future<Long>> copies)
+            throws SQLException, IOException {
+        try {
+            while (!chunks.offer(chunk, 100, TimeUnit.MILLISECONDS)) {
+                for (Future<Long> copy : copies) {
+                    if (copy.isDone()) {
+                        await(copy);
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Import interrupted");
+        }
+    }
+
+    private long await(Future<Long> copy) throws SQLException, IOException {
+        try {
+            return copy.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Import interrupted");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof SQLException) {
+                throw (SQLException) cause;
+            }
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IllegalStateException("Import worker failed", cause);
+        }
+    }
+
+    @FunctionalInterface
+    private interface ProductWrite {
+        long run() throws SQLException, IOException;
+    }
+
+    private static String firstCsvField(String line) {
+        if (!line.startsWith("\"")) {
+            int comma = line.indexOf(',');
+            return comma < 0 ? line : line.substring(0, comma);
+        }
+        StringBuilder field = new StringBuilder();
+        for (int i = 1; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '"') {
+                if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    break;
+                }
+            } else {
+                field.append(c);
+            }
+        }
+        return field.toString();
+    }
+}
@@ -0,0 +1,14 @@
+package com.java.test.junior.service;
+
+import com.java.test.junior.model.Response;
+import org.springframework.http.ResponseEntity;
+
+public interface ProductLikeService {
+    ResponseEntity<Response> findTopLiked(int limit);
+
+    void fold();
+
+    void remove(Long productId);
+
+    void rebuild();
+}
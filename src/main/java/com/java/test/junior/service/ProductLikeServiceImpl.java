@@ -0,0 +1,82 @@
+package com.java.test.junior.service;
+
+import com.java.test.junior.mapper.ProductLikeMapper;
+import com.java.test.junior.model.ProductLikeCount;
+import com.java.test.junior.model.Response;
+import com.java.test.junior.util.TopKIndex;
+import lombok.extern.java.Log;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+import static com.java.test.junior.util.ResponseUtil.buildSuccessResponse;
+
+/**
+ * Maintains {@code product.like_count} and serves the most liked products from an in-process
+ * {@link TopKIndex}. Like toggles only write per-slot deltas; folding them here is the single writer of
+ * the column, and the totals it returns refresh the index for exactly the products that changed.
+ * Folds on other nodes are picked up by the periodic rebuild.
+ */
+@Service
+@Log
+public class ProductLikeServiceImpl implements ProductLikeService, ApplicationRunner {
+    private final ProductLikeMapper productLikeMapper;
+    private final ProductCache productCache;
+    private final TopKIndex index;
+    private final int capacity;
+
+    public ProductLikeServiceImpl(ProductLikeMapper productLikeMapper, ProductCache productCache,
+                                  @Value("${product.likes.top-capacity:200}") int capacity) {
+        this.productLikeMapper = productLikeMapper;
+        this.productCache = productCache;
+        this.capacity = capacity;
+        this.index = new TopKIndex(capacity);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        rebuild();
+    }
+
+    @Override
+    public ResponseEntity<Response> findTopLiked(int limit) {
+        return ResponseEntity.status(HttpStatus.OK)
+                .body(buildSuccessResponse("Top liked products retrieved successfully", index.top(limit)));
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${product.likes.fold-interval-ms:1000}")
+    public void fold() {
+        List<ProductLikeCount> changed = productLikeMapper.foldDeltas();
+        if (changed.isEmpty()) {
+            return;
+        }
+        index.update(changed);
+        // like_count is part of the product, so cached copies of these rows are now stale.
+        for (ProductLikeCount count : changed) {
+            productCache.evict(count.getId());
+        }
+        log.fine("Folded like counts of " + changed.size() + " products");
+    }
+
+    @Override
+    public void remove(Long productId) {
+        index.remove(productId);
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${product.likes.rebuild-interval-ms:60000}",
+            initialDelayString = "${product.likes.rebuild-interval-ms:60000}")
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        index.rebuild(productLikeMapper.findTopLiked(capacity));
+        log.fine("Top liked index built with " + index.size() + " products in "
+                + (System.currentTimeMillis() - start) + " ms");
+    }
+}
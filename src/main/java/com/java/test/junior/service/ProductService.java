@@ -6,10 +6,9 @@ package com.java.test.junior.service;
 import com.java.test.junior.model.PaginatedResponse;
 import com.java.test.junior.model.ProductDTO;
 import com.java.test.junior.model.Response;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
-
-import java.io.IOException;
-import java.sql.SQLException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 
 public interface ProductService {
@@ -17,15 +16,24 @@ public interface ProductService {
 
     ResponseEntity<Response> findProduct(Long id);
 
+    ResponseEntity<Response> findProduct(Long id, HttpHeaders requestHeaders);
+
     ResponseEntity<Response> updateProduct(Long id, ProductDTO productDTO);
 
     ResponseEntity<Response> deleteProduct(Long id);
 
-    ResponseEntity<PaginatedResponse> findAll(int page, int pageSize);
+    ResponseEntity<PaginatedResponse> findAll(int page, int pageSize, String countMode, HttpHeaders requestHeaders);
+
+    ResponseEntity<PaginatedResponse> findAllByCursor(String cursor, String sort, int pageSize, String countMode,
+                                                      HttpHeaders requestHeaders);
+
+    ResponseEntity<StreamingResponseBody> streamAll();
 
     ResponseEntity<Response> findByName(String name);
 
-    ResponseEntity<Response> loadProductsFromCsv(String fileLocation) throws SQLException, IOException;
+    ResponseEntity<PaginatedResponse> search(String query, String cursor, int pageSize);
+
+    ResponseEntity<Response> cacheStats();
 
     void deleteAllByUserId(Long id);
 }
\ No newline at end of file
@@ -3,50 +3,62 @@
  */
 package com.java.test.junior.service;
 
+import com.java.test.junior.exception.BadRequestException;
 import com.java.test.junior.exception.ForbiddenException;
 import com.java.test.junior.exception.ResourceNotFoundException;
 import com.java.test.junior.mapper.ProductMapper;
 import com.java.test.junior.mapper.UserProductMapper;
 import com.java.test.junior.model.*;
+import com.java.test.junior.util.CursorUtil;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.java.Log;
-import org.postgresql.copy.CopyManager;
-import org.postgresql.core.BaseConnection;
+import org.apache.ibatis.cursor.Cursor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.jdbc.datasource.DataSourceUtils;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import javax.sql.DataSource;
-import java.io.*;
-import java.net.URL;
-import java.nio.file.Files;
-import java.sql.Connection;
-import java.sql.SQLException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.List;
 
+import static com.java.test.junior.util.ConditionalRequestUtil.*;
 import static com.java.test.junior.util.ResponseUtil.buildSuccessResponse;
+import static com.java.test.junior.util.SecurityUtil.getCurrentUser;
 
 @Service
 @RequiredArgsConstructor
 @Log
 public class ProductServiceImpl implements ProductService {
+    // 64-bit FNV-1a, applied to whole longs, for the listing tags.
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
     private final ProductMapper productMapper;
-    private final UserService userService;
     private final UserProductMapper userProductMapper;
-    private final DataSource dataSource;
-
+    private final ProductCountService productCountService;
+    private final ProductSuggestService productSuggestService;
+    private final ProductCache productCache;
+    private final ProductLikeService productLikeService;
+    private final PlatformTransactionManager transactionManager;
+    private final ObjectMapper objectMapper;
 
     @Override
     public ResponseEntity<Response> createProduct(ProductDTO productDTO) {
         log.info("Creating product: " + productDTO);
         Product product = mapDTOToProduct(productDTO);
         productMapper.save(product);
+        productCountService.invalidate();
+        productSuggestService.add(product.getName());
         log.info("Product created with ID: " + product.getId());
         return ResponseEntity.status(HttpStatus.CREATED)
                 .body(buildSuccessResponse("Product created successfully", productDTO));
@@ -58,15 +70,7 @@ public class ProductServiceImpl implements ProductService {
         product.setDescription(productDTO.getDescription());
         product.setPrice(productDTO.getPrice());
 
-        String username = ((UserDetails) SecurityContextHolder
-                .getContext().getAuthentication().getPrincipal()).getUsername();
-
-        User user = userService.findByUsername(username);
-        if (user == null) {
-            log.warning("User not found with username: " + username);
-            throw new ResourceNotFoundException("Authenticated user not found in database");
-        }
-        product.setUserId(user.getId());
+        product.setUserId(getCurrentUser().getId());
 
         return product;
     }
@@ -74,7 +78,7 @@ public class ProductServiceImpl implements ProductService {
     @Override
     public ResponseEntity<Response> findProduct(Long id) {
         log.info("Finding product with ID: " + id);
-        Product product = productMapper.findById(id);
+        Product product = productCache.getById(id, productMapper::findById);
         if (product == null) {
             productNotFound(id);
             throw new ResourceNotFoundException("Product not found with ID: " + id);
@@ -83,15 +87,56 @@ public class ProductServiceImpl implements ProductService {
                 .body(buildSuccessResponse("Product retrieved successfully", product));
     }
 
+    /**
+     * A conditional request is checked against {@code updated_at} and the like count alone, so an unchanged
+     * product costs one index lookup and no body. A cached copy that differs from them was written on
+     * another node, or before the last like count fold, and is reloaded. Last-Modified also covers the
+     * fold, so If-Modified-Since cannot answer 304 over a changed like count.
+     */
+    @Override
+    public ResponseEntity<Response> findProduct(Long id, HttpHeaders requestHeaders) {
+        Product version = null;
+        if (isConditional(requestHeaders)) {
+            version = productMapper.findVersionById(id);
+            if (version != null && isNotModified(requestHeaders, productEtag(version), lastModified(version))) {
+                log.info("Product with ID: " + id + " not modified");
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                        .eTag(productEtag(version))
+                        .lastModified(lastModified(version))
+                        .build();
+            }
+        }
+
+        Product product = (Product) findProduct(id).getBody().getData();
+        if (version != null && (!version.getUpdatedAt().equals(product.getUpdatedAt())
+                || !version.getLikeCount().equals(product.getLikeCount()))) {
+            productCache.evict(id);
+            product = productCache.getById(id, productMapper::findById);
+            if (product == null) {
+                throw new ResourceNotFoundException("Product not found with ID: " + id);
+            }
+        }
+        return ResponseEntity.status(HttpStatus.OK)
+                .eTag(productEtag(product))
+                .lastModified(lastModified(product))
+                .body(buildSuccessResponse("Product retrieved successfully", product));
+    }
+
     @Override
     public ResponseEntity<Response> updateProduct(Long id, ProductDTO productDTO) {
         log.info("Updating product with ID: " + id);
         Product product = checkPermission(id);
+        String oldName = product.getName();
         product.setName(productDTO.getName());
         product.setPrice(productDTO.getPrice());
         product.setDescription(productDTO.getDescription());
         product.setUpdatedAt(LocalDateTime.now());
         productMapper.update(product);
+        productCache.evict(id);
+        if (!oldName.equals(product.getName())) {
+            productSuggestService.remove(oldName);
+            productSuggestService.add(product.getName());
+        }
         log.info("Product updated with ID: " + id);
         return ResponseEntity.status(HttpStatus.OK)
                 .body(buildSuccessResponse("Product updated successfully", product));
@@ -108,9 +153,13 @@ public class ProductServiceImpl implements ProductService {
     @Override
     public ResponseEntity<Response> deleteProduct(Long id) {
         log.info("Deleting product with ID: " + id);
-        checkPermission(id);
+        Product product = checkPermission(id);
         userProductMapper.deleteByProductId(id);
         productMapper.delete(id);
+        productCache.evict(id);
+        productLikeService.remove(id);
+        productCountService.invalidate();
+        productSuggestService.remove(product.getName());
         log.info("Product deleted with ID: " + id);
 
         return ResponseEntity.status(HttpStatus.OK)
@@ -118,9 +167,7 @@ public class ProductServiceImpl implements ProductService {
     }
 
     private Product checkPermission(Long id) {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String username = authentication.getName();
-        Long userId = userService.findByUsername(username).getId();
+        Long userId = getCurrentUser().getId();
         Product product = productMapper.findById(id);
         if (product == null) {
             productNotFound(id);
@@ -133,96 +180,223 @@ public class ProductServiceImpl implements ProductService {
     }
 
     @Override
-    public ResponseEntity<PaginatedResponse> findAll(int page, int pageSize) {
+    public ResponseEntity<PaginatedResponse> findAll(int page, int pageSize, String countMode,
+                                                     HttpHeaders requestHeaders) {
         log.info("Fetching products, page: " + page + ", pageSize: " + pageSize);
         int offset = (page - 1) * pageSize;
         List<Product> list = productMapper.findAll(offset, pageSize);
         String message = "Products retrieved successfully";
-        PaginatedResponse paginatedResponse = new PaginatedResponse(true, message, list, page, pageSize);
+        PaginatedResponse paginatedResponse = new PaginatedResponse(true, message, list, page, pageSize, null,
+                null, null);
+        applyCount(paginatedResponse, countMode);
 
-        return ResponseEntity.status(HttpStatus.OK).body(paginatedResponse);
+        String etag = listEtag(list, paginatedResponse.getTotalCount());
+        if (isNotModified(requestHeaders, etag, -1)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        return ResponseEntity.status(HttpStatus.OK).eTag(etag).body(paginatedResponse);
     }
 
     @Override
-    public ResponseEntity<Response> findByName(String name) {
-        log.info("Searching for product with name: " + name);
-        Product product = productMapper.findByName(name);
-        if (product == null) {
-            log.warning("Product not found with name: " + name);
-            throw new ResourceNotFoundException("Product not found with name: " + name);
+    public ResponseEntity<PaginatedResponse> findAllByCursor(String cursor, String sort, int pageSize,
+                                                             String countMode, HttpHeaders requestHeaders) {
+        log.info("Fetching products after cursor: " + cursor + ", sort: " + sort + ", pageSize: " + pageSize);
+        ProductCursor productCursor = decodeCursor(cursor, sort);
+        List<Product> list = productMapper.findAllAfter(productCursor, pageSize + 1);
+
+        String nextCursor = null;
+        if (list.size() > pageSize) {
+            list = list.subList(0, pageSize);
+            nextCursor = encodeCursor(productCursor.getSort(), list.get(pageSize - 1));
         }
+        String message = "Products retrieved successfully";
+        PaginatedResponse paginatedResponse = new PaginatedResponse(true, message, list, 0, pageSize, nextCursor,
+                null, null);
+        applyCount(paginatedResponse, countMode);
 
-        return ResponseEntity.status(HttpStatus.OK)
-                .body(buildSuccessResponse("Product retrieved successfully", product));
+        String etag = listEtag(list, paginatedResponse.getTotalCount());
+        if (isNotModified(requestHeaders, etag, -1)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        return ResponseEntity.status(HttpStatus.OK).eTag(etag).body(paginatedResponse);
     }
 
+    /**
+     * Writes every product as one JSON line while the rows arrive from a server-side cursor. A client that
+     * disconnects makes the next write fail, which rolls back the transaction and closes the cursor, so the
+     * query stops instead of running to the end.
+     */
     @Override
-    public ResponseEntity<Response> loadProductsFromCsv(String fileLocation) throws SQLException, IOException {
-        log.info("Loading products from CSV with path: " + fileLocation);
-        long adminUserId = userService.findByRole("ADMIN").getId();
-
-        InputStream inputStream = getInputStream(fileLocation);
-
-        File tempFile = getTempFile(inputStream, adminUserId);
-
-        copy(tempFile);
-
-        deleteTempFile(tempFile);
+    public ResponseEntity<StreamingResponseBody> streamAll() {
+        log.info("Streaming all products");
+        ObjectWriter writer = objectMapper.writerFor(Product.class);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        // The driver only honours the fetch size inside a transaction; without one it reads the whole result.
+        transactionTemplate.setReadOnly(true);
+
+        StreamingResponseBody body = outputStream -> {
+            long start = System.currentTimeMillis();
+            try {
+                long rows = transactionTemplate.execute(status -> {
+                    long count = 0;
+                    try (Cursor<Product> products = productMapper.streamAll()) {
+                        for (Product product : products) {
+                            outputStream.write(writer.writeValueAsBytes(product));
+                            outputStream.write('\n');
+                            count++;
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    return count;
+                });
+                log.info("Streamed " + rows + " products in " + (System.currentTimeMillis() - start) + " ms");
+            } catch (UncheckedIOException e) {
+                log.warning("Product stream aborted: " + e.getCause().getMessage());
+                throw e.getCause();
+            }
+        };
 
         return ResponseEntity.status(HttpStatus.OK)
-                .body(buildSuccessResponse("CSV file copied successfully", null));
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
     }
 
-    @Override
-    public void deleteAllByUserId(Long id) {
-        productMapper.deleteAllByUserId(id);
+    /**
+     * Likes change the count without touching {@code updated_at}, so the count is part of the tag.
+     */
+    private static String productEtag(Product product) {
+        LocalDateTime updatedAt = product.getUpdatedAt();
+        return etag("product", product.getId(), toEpochMillis(updatedAt), updatedAt.getNano() / 1000 % 1000,
+                product.getLikeCount());
     }
 
-    private void deleteTempFile(File tempFile) throws IOException{
-        Files.delete(tempFile.toPath());
-        log.info("Temporary file deleted.");
+    private static long lastModified(Product product) {
+        LocalDateTime likeCountUpdatedAt = product.getLikeCountUpdatedAt();
+        LocalDateTime updatedAt = product.getUpdatedAt();
+        return toEpochMillis(likeCountUpdatedAt != null && likeCountUpdatedAt.isAfter(updatedAt)
+                ? likeCountUpdatedAt : updatedAt);
     }
 
-    private void copy(File tempFile) throws SQLException, IOException {
-        Connection conn = DataSourceUtils.getConnection(dataSource);
-        CopyManager copyManager = new CopyManager(conn.unwrap(BaseConnection.class));
+    /**
+     * A weak tag over what a page shows: the id, {@code updated_at} and like count of every row, and the
+     * total when one was asked for. It is computed from the rows being returned, so it can never describe a
+     * different snapshot than the body. A 304 still costs the page query, but no serialization or transfer.
+     */
+    private static String listEtag(List<Product> products, Long totalCount) {
+        long hash = FNV_OFFSET_BASIS;
+        for (Product product : products) {
+            LocalDateTime updatedAt = product.getUpdatedAt();
+            hash = fnv(hash, product.getId());
+            hash = fnv(hash, toEpochMillis(updatedAt) * 1000 + updatedAt.getNano() / 1000 % 1000);
+            hash = fnv(hash, product.getLikeCount());
+        }
+        hash = fnv(hash, totalCount != null ? totalCount : -1);
+        return "W/" + etag("products", products.size(), Long.toHexString(hash));
+    }
+
+    private static long fnv(long hash, long value) {
+        return (hash ^ value) * FNV_PRIME;
+    }
 
-        try (Reader processedReader = new FileReader(tempFile)) {
-            copyManager.copyIn(
-                    "COPY product(name, price, description, user_id, created_at, updated_at) " +
-                            "FROM STDIN WITH (FORMAT csv, HEADER true)",
-                    processedReader
-            );
+    private void applyCount(PaginatedResponse paginatedResponse, String countMode) {
+        Long totalCount = productCountService.count(countMode);
+        if (totalCount != null) {
+            paginatedResponse.setTotalCount(totalCount);
+            paginatedResponse.setTotalPages((int) ((totalCount + paginatedResponse.getPageSize() - 1)
+                    / paginatedResponse.getPageSize()));
         }
     }
 
+    private ProductCursor decodeCursor(String cursor, String sort) {
+        if (cursor == null || cursor.isEmpty()) {
+            return new ProductCursor(sort, null, null);
+        }
+        String[] parts = CursorUtil.decode(cursor, 3);
+        try {
+            if ("price".equals(parts[0])) {
+                new BigDecimal(parts[2]);
+            } else if ("createdAt".equals(parts[0])) {
+                LocalDateTime.parse(parts[2]);
+            } else if (!"id".equals(parts[0]) && !"name".equals(parts[0])) {
+                throw new BadRequestException("Invalid cursor");
+            }
+            return new ProductCursor(parts[0], Long.parseLong(parts[1]), parts[2]);
+        } catch (NumberFormatException | DateTimeParseException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
 
-    private File getTempFile(InputStream inputStream, long adminUserId) throws IOException {
-        File tempFile = Files.createTempFile("processed-products", ".csv").toFile();
-        LocalDateTime now = LocalDateTime.now();
-        String nowStr = now.format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
+    private String encodeCursor(String sort, Product last) {
+        String value;
+        switch (sort) {
+            case "name":
+                value = last.getName();
+                break;
+            case "price":
+                value = BigDecimal.valueOf(last.getPrice()).toPlainString();
+                break;
+            case "createdAt":
+                value = last.getCreatedAt().toString();
+                break;
+            default:
+                value = "";
+        }
+        return CursorUtil.encode(sort, String.valueOf(last.getId()), value);
+    }
 
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream));
-             BufferedWriter writer = new BufferedWriter(new FileWriter(tempFile))) {
+    @Override
+    public ResponseEntity<Response> findByName(String name) {
+        log.info("Searching for product with name: " + name);
+        Product product = productCache.getByName(name, productMapper::findByName);
+        if (product == null) {
+            log.warning("Product not found with name: " + name);
+            throw new ResourceNotFoundException("Product not found with name: " + name);
+        }
 
-            reader.readLine();
-            writer.write("name,price,description,user_id,created_at,updated_at\n");
+        return ResponseEntity.status(HttpStatus.OK)
+                .body(buildSuccessResponse("Product retrieved successfully", product));
+    }
 
-            String line;
-            while ((line = reader.readLine()) != null) {
-                writer.write(line + "," + adminUserId + "," + nowStr + "," + nowStr + "\n");
+    @Override
+    public ResponseEntity<PaginatedResponse> search(String query, String cursor, int pageSize) {
+        log.info("Searching products for: " + query + ", cursor: " + cursor + ", pageSize: " + pageSize);
+        Float afterRank = null;
+        Long afterId = null;
+        if (cursor != null && !cursor.isEmpty()) {
+            String[] parts = CursorUtil.decode(cursor, 2);
+            try {
+                afterRank = Float.parseFloat(parts[0]);
+                afterId = Long.parseLong(parts[1]);
+            } catch (NumberFormatException e) {
+                throw new BadRequestException("Invalid cursor");
             }
         }
-        return tempFile;
-    }
 
-    private InputStream getInputStream(String fileLocation) throws IOException {
-        InputStream inputStream;
-        if (fileLocation.startsWith("http://") || fileLocation.startsWith("https://")) {
-            inputStream = new URL(fileLocation).openStream();
-        } else {
-            inputStream = new FileInputStream(fileLocation);
+        List<ProductSearchHit> hits = productMapper.search(query, afterRank, afterId, pageSize + 1);
+        String nextCursor = null;
+        if (hits.size() > pageSize) {
+            hits = hits.subList(0, pageSize);
+            ProductSearchHit last = hits.get(pageSize - 1);
+            nextCursor = CursorUtil.encode(String.valueOf(last.getRank()), String.valueOf(last.getId()));
         }
-        return inputStream;
+        String message = "Products retrieved successfully";
+        return ResponseEntity.status(HttpStatus.OK)
+                .body(new PaginatedResponse(true, message, hits, 0, pageSize, nextCursor, null, null));
+    }
+
+    @Override
+    public ResponseEntity<Response> cacheStats() {
+        return ResponseEntity.status(HttpStatus.OK)
+                .body(buildSuccessResponse("Product cache statistics retrieved successfully", productCache.stats()));
+    }
+
+    @Override
+    public void deleteAllByUserId(Long id) {
+        List<String> names = productMapper.deleteAllByUserId(id);
+        productCache.evictUser(id);
+        productCountService.invalidate();
+        productSuggestService.removeAll(names);
+        productLikeService.rebuild();
     }
-}
\ No newline at end of file
+}
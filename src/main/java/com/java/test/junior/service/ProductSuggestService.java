@@ -0,0 +1,20 @@
+package com.java.test.junior.service;
+
+import com.java.test.junior.model.Response;
+import org.springframework.http.ResponseEntity;
+
+import java.util.Collection;
+
+public interface ProductSuggestService {
+    ResponseEntity<Response> suggest(String prefix, int limit);
+
+    void add(String name);
+
+    void addAll(Collection<String> names);
+
+    void remove(String name);
+
+    void removeAll(Collection<String> names);
+
+    void rebuild();
+}
@@ -0,0 +1,86 @@
+package com.java.test.junior.service;
+
+import com.java.test.junior.mapper.ProductMapper;
+import com.java.test.junior.model.Response;
+import com.java.test.junior.util.PrefixIndex;
+import lombok.extern.java.Log;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static com.java.test.junior.util.ResponseUtil.buildSuccessResponse;
+
+/**
+ * Serves product-name autocomplete from an in-process {@link PrefixIndex}. The index is loaded at
+ * startup with a streaming scan and kept current by the product write paths. Writes that land while a
+ * rebuild scans are kept, see {@link PrefixIndex}.
+ */
+@Service
+@Log
+public class ProductSuggestServiceImpl implements ProductSuggestService, ApplicationRunner {
+    private final ProductMapper productMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final PrefixIndex index;
+
+    public ProductSuggestServiceImpl(ProductMapper productMapper, PlatformTransactionManager transactionManager,
+                                     @Value("${product.suggest.compaction-threshold:4096}") int compactionThreshold) {
+        this.productMapper = productMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.index = new PrefixIndex(compactionThreshold);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        rebuild();
+    }
+
+    @Override
+    public ResponseEntity<Response> suggest(String prefix, int limit) {
+        List<String> names = index.find(prefix, limit);
+        return ResponseEntity.status(HttpStatus.OK)
+                .body(buildSuccessResponse("Suggestions retrieved successfully", names));
+    }
+
+    @Override
+    public void add(String name) {
+        index.add(name);
+    }
+
+    @Override
+    public void addAll(Collection<String> names) {
+        index.addAll(names);
+    }
+
+    @Override
+    public void remove(String name) {
+        index.remove(name);
+    }
+
+    @Override
+    public void removeAll(Collection<String> names) {
+        index.removeAll(names);
+    }
+
+    @Override
+    public synchronized void rebuild() {
+        long start = System.currentTimeMillis();
+        List<String> names = new ArrayList<>();
+        index.beginRebuild();
+        // The scan runs in a read-only transaction so the driver honours the fetch size and streams rows.
+        transactionTemplate.executeWithoutResult(status ->
+                productMapper.scanNames(context -> names.add(context.getResultObject())));
+        index.rebuild(names);
+        log.info("Product name index built with " + index.size() + " names in "
+                + (System.currentTimeMillis() - start) + " ms");
+    }
+}
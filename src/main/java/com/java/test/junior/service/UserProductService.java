@@ -5,4 +5,6 @@ import org.springframework.http.ResponseEntity;
 
 public interface UserProductService {
     ResponseEntity<Response> like(Long productId);
+
+    ResponseEntity<Response> findLike(Long productId);
 }
@@ -1,47 +1,86 @@
 package com.java.test.junior.service;
 
-import com.java.test.junior.exception.ResourceAlreadyExistsException;
 import com.java.test.junior.exception.ResourceNotFoundException;
 import com.java.test.junior.mapper.UserProductMapper;
+import com.java.test.junior.model.LikeState;
 import com.java.test.junior.model.Response;
-import com.java.test.junior.model.User;
-import com.java.test.junior.model.UserProduct;
+import com.java.test.junior.security.UserPrincipal;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.java.Log;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 
+import java.util.concurrent.ThreadLocalRandom;
+
 import static com.java.test.junior.util.ResponseUtil.buildSuccessResponse;
+import static com.java.test.junior.util.SecurityUtil.getCurrentUser;
 
 @Service
 @RequiredArgsConstructor
 @Log
 public class UserProductServiceImpl implements UserProductService{
-    private final UserServiceImpl userService;
-    private final ProductServiceImpl productService;
     private final UserProductMapper userProductMapper;
+    private final LikeBuffer likeBuffer;
+
+    @Value("${product.likes.counter-slots:16}")
+    private int counterSlots;
 
     @Override
     public ResponseEntity<Response> like(Long productId) {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String username = authentication.getName();
-        User user = userService.findByUsername(username);
-        productService.findProduct(productId);
-        UserProduct userProduct = userProductMapper.findById(user.getId(), productId);
-        if (userProduct != null) {
-            userProductMapper.delete(userProduct);
+        UserPrincipal user = getCurrentUser();
+        String username = user.getUsername();
+        boolean liked = likeBuffer.isEnabled() ? toggleBuffered(user.getId(), productId)
+                : toggle(user.getId(), productId);
+
+        if (!liked) {
             log.info("User " + username + " successfully disliked product: " + productId);
             return ResponseEntity.status(HttpStatus.OK)
-                    .body(buildSuccessResponse("Product disliked successfully", null));
+                    .body(buildSuccessResponse("Product disliked successfully", new LikeState(productId, false)));
         }
-        UserProduct userProductFinal = new UserProduct(user.getId(), productId);
-        userProductMapper.save(userProductFinal);
         log.info("User " + username + " successfully liked product: " + productId);
+        return ResponseEntity.status(HttpStatus.OK)
+                .body(buildSuccessResponse("Product liked successfully", new LikeState(productId, true)));
+    }
 
+    /**
+     * A toggle still waiting in the write-behind buffer takes precedence over the committed state.
+     */
+    @Override
+    public ResponseEntity<Response> findLike(Long productId) {
+        Long userId = getCurrentUser().getId();
+        Boolean liked = likeBuffer.getPending(userId, productId);
+        if (liked == null) {
+            liked = userProductMapper.findLikeState(userId, productId);
+        }
+        if (liked == null) {
+            log.warning("Product not found with ID: " + productId);
+            throw new ResourceNotFoundException("Product not found with ID: " + productId);
+        }
         return ResponseEntity.status(HttpStatus.OK)
-                .body(buildSuccessResponse("Product liked successfully", null));
+                .body(buildSuccessResponse("Like state retrieved successfully", new LikeState(productId, liked)));
+    }
+
+    private boolean toggle(Long userId, Long productId) {
+        try {
+            // A random slot spreads the count updates of a popular product over several rows.
+            return userProductMapper.toggle(userId, productId, ThreadLocalRandom.current().nextInt(counterSlots));
+        } catch (DataIntegrityViolationException e) {
+            // The only constraint the toggle can violate is the foreign key to product.
+            log.warning("Product not found with ID: " + productId);
+            throw new ResourceNotFoundException("Product not found with ID: " + productId);
+        }
+    }
+
+    private boolean toggleBuffered(Long userId, Long productId) {
+        Boolean liked = likeBuffer.toggle(userId, productId,
+                () -> userProductMapper.findLikeState(userId, productId));
+        if (liked == null) {
+            log.warning("Product not found with ID: " + productId);
+            throw new ResourceNotFoundException("Product not found with ID: " + productId);
+        }
+        return liked;
     }
 }
@@ -6,6 +6,8 @@ import com.java.test.junior.mapper.UserMapper;
 import com.java.test.junior.model.Response;
 import com.java.test.junior.model.User;
 import com.java.test.junior.model.UserDTO;
+import com.java.test.junior.security.AuthenticationCache;
+import com.java.test.junior.security.TokenService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.java.Log;
 import org.springframework.http.HttpStatus;
@@ -15,6 +17,7 @@ import org.springframework.stereotype.Service;
 import java.util.Collections;
 
 import static com.java.test.junior.util.ResponseUtil.buildSuccessResponse;
+import static com.java.test.junior.util.TransactionUtil.afterCommit;
 
 @Service
 @RequiredArgsConstructor
@@ -22,6 +25,8 @@ import static com.java.test.junior.util.ResponseUtil.buildSuccessResponse;
 public class UserServiceImpl implements UserService{
     private final UserMapper userMapper;
     private final PasswordEncoder passwordEncoder;
+    private final AuthenticationCache authenticationCache;
+    private final TokenService tokenService;
 
     public User findByUsername(String username) {
         log.info("Finding user with username: " + username);
@@ -56,6 +61,12 @@ public class UserServiceImpl implements UserService{
     @Override
     public void updatePasswordByEmail(String email, String newPassword) {
         userMapper.updatePasswordByEmail(email, newPassword);
+        User user = userMapper.findByEmail(email);
+        if (user != null) {
+            tokenService.revoke(user.getUsername());
+            // A request racing the reset could otherwise cache the old password hash again before commit.
+            afterCommit(() -> authenticationCache.evictUser(user.getUsername()));
+        }
     }
 
     public ResponseEntity<Response> save(UserDTO userDTO) {
@@ -78,6 +89,11 @@ public class UserServiceImpl implements UserService{
     }
 
     public void delete(Long id) {
+        User user = userMapper.findById(id);
         userMapper.delete(id);
+        if (user != null) {
+            tokenService.revoke(user.getUsername());
+            afterCommit(() -> authenticationCache.evictUser(user.getUsername()));
+        }
     }
 }
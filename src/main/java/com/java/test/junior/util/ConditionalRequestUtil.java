@@ -0,0 +1,64 @@
+package com.java.test.junior.util;
+
+import org.springframework.http.HttpHeaders;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * Validators for conditional GETs, evaluated before a response is built so an unchanged resource can
+ * be answered with 304 from a cheap lookup.
+ */
+public class ConditionalRequestUtil {
+
+    private ConditionalRequestUtil() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    public static boolean isConditional(HttpHeaders requestHeaders) {
+        return requestHeaders.containsKey(HttpHeaders.IF_NONE_MATCH)
+                || requestHeaders.containsKey(HttpHeaders.IF_MODIFIED_SINCE);
+    }
+
+    /**
+     * If-None-Match wins over If-Modified-Since when both are present, as RFC 7232 requires.
+     * Pass a non-positive {@code lastModified} for resources without a modification time.
+     */
+    public static boolean isNotModified(HttpHeaders requestHeaders, String etag, long lastModified) {
+        if (requestHeaders.containsKey(HttpHeaders.IF_NONE_MATCH)) {
+            for (String candidate : requestHeaders.getIfNoneMatch()) {
+                if ("*".equals(candidate) || stripWeak(candidate).equals(stripWeak(etag))) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        if (lastModified <= 0) {
+            return false;
+        }
+        long ifModifiedSince;
+        try {
+            ifModifiedSince = requestHeaders.getIfModifiedSince();
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        // HTTP dates have second precision.
+        return ifModifiedSince >= 0 && lastModified / 1000 <= ifModifiedSince / 1000;
+    }
+
+    public static String etag(String prefix, Object... parts) {
+        StringBuilder etag = new StringBuilder("\"").append(prefix);
+        for (Object part : parts) {
+            etag.append('-').append(part);
+        }
+        return etag.append('"').toString();
+    }
+
+    public static long toEpochMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static String stripWeak(String etag) {
+        return etag.startsWith("W/") ? etag.substring(2) : etag;
+    }
+}
@@ -0,0 +1,68 @@
+package com.java.test.junior.util;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.function.Consumer;
+
+/**
+ * Streams CSV records from a {@link CsvRecordReader}, emitting a header first and appending a fixed
+ * suffix to every record on the fly. Nothing is buffered beyond the current record, so arbitrarily
+ * large inputs can be fed straight into {@code COPY ... FROM STDIN}.
+ */
+public class CsvColumnAppendingReader extends Reader {
+    private final CsvRecordReader source;
+    private final String suffix;
+    private final Consumer<String> recordListener;
+    private final StringBuilder current = new StringBuilder(256);
+    private int position;
+    private boolean finished;
+
+    public CsvColumnAppendingReader(CsvRecordReader source, String header, String suffix,
+                                    Consumer<String> recordListener) {
+        this.source = source;
+        this.suffix = suffix;
+        this.recordListener = recordListener;
+        if (header != null) {
+            current.append(header).append('\n');
+        }
+    }
+
+    @Override
+    public int read(char[] buffer, int offset, int length) throws IOException {
+        if (length == 0) {
+            return 0;
+        }
+        int written = 0;
+        while (written < length) {
+            if (position == current.length() && !fill()) {
+                break;
+            }
+            int count = Math.min(length - written, current.length() - position);
+            current.getChars(position, position + count, buffer, offset + written);
+            position += count;
+            written += count;
+        }
+        return written == 0 ? -1 : written;
+    }
+
+    private boolean fill() throws IOException {
+        if (finished) {
+            return false;
+        }
+        current.setLength(0);
+        position = 0;
+        String record = source.readRecord();
+        if (record == null) {
+            finished = true;
+            return false;
+        }
+        recordListener.accept(record);
+        current.append(record).append(suffix).append('\n');
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        source.close();
+    }
+}
@@ -0,0 +1,83 @@
+package com.java.test.junior.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Splits CSV text into records. A record ends at a line break outside double quotes, so quoted fields
+ * spanning several lines stay in one record. The terminator (and a preceding carriage return) is not
+ * part of the returned record.
+ */
+public class CsvRecordReader implements Closeable {
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final Reader source;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private final StringBuilder record = new StringBuilder(256);
+    private int position;
+    private int limit;
+    private long recordNumber;
+
+    public CsvRecordReader(Reader source) {
+        this.source = source;
+    }
+
+    /**
+     * Returns the next record, or {@code null} once the input is exhausted.
+     */
+    public String readRecord() throws IOException {
+        record.setLength(0);
+        boolean inQuotes = false;
+        boolean readAny = false;
+        while (true) {
+            if (position == limit) {
+                limit = source.read(buffer, 0, buffer.length);
+                position = 0;
+                if (limit <= 0) {
+                    limit = 0;
+                    if (!readAny) {
+                        return null;
+                    }
+                    break;
+                }
+            }
+            readAny = true;
+            int start = position;
+            while (position < limit) {
+                char c = buffer[position];
+                if (c == '"') {
+                    inQuotes = !inQuotes;
+                } else if (c == '\n' && !inQuotes) {
+                    record.append(buffer, start, position - start);
+                    position++;
+                    return finish();
+                }
+                position++;
+            }
+            record.append(buffer, start, position - start);
+        }
+        return finish();
+    }
+
+    /**
+     * One-based number of the record most recently returned.
+     */
+    public long getRecordNumber() {
+        return recordNumber;
+    }
+
+    private String finish() {
+        int length = record.length();
+        if (length > 0 && record.charAt(length - 1) == '\r') {
+            record.setLength(length - 1);
+        }
+        recordNumber++;
+        return record.toString();
+    }
+
+    @Override
+    public void close() throws IOException {
+        source.close();
+    }
+}
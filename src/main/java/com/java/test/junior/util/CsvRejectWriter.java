@@ -0,0 +1,62 @@
+package com.java.test.junior.util;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Writes rejected CSV records with their record number and reason to a file, and fails once more than
+ * {@code maxErrors} records have been rejected. The file is only created when the first record is rejected.
+ * A record that was not valid UTF-8 is written with U+FFFD in place of each malformed sequence.
+ */
+public class CsvRejectWriter implements Closeable {
+    private static final byte[] REPLACEMENT = "\uFFFD".getBytes(StandardCharsets.UTF_8);
+
+    private final Path file;
+    private final long maxErrors;
+    private Writer writer;
+    private long rejected;
+
+    public CsvRejectWriter(Path file, long maxErrors) {
+        this.file = file;
+        this.maxErrors = maxErrors;
+    }
+
+    public void reject(long recordNumber, String reason, String record) throws IOException {
+        rejected++;
+        if (writer == null) {
+            Files.createDirectories(file.getParent());
+            CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+                    .onMalformedInput(CodingErrorAction.REPLACE)
+                    .replaceWith(REPLACEMENT);
+            writer = new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(file), encoder));
+            writer.write("record_number,reason,record\n");
+        }
+        writer.write(recordNumber + "," + quote(reason) + "," + quote(record) + "\n");
+        if (rejected > maxErrors) {
+            throw new IOException("Rejected rows exceeded the error budget of " + maxErrors);
+        }
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (writer != null) {
+            writer.close();
+        }
+    }
+
+    private static String quote(String value) {
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,37 @@
+package com.java.test.junior.util;
+
+import com.java.test.junior.exception.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Encodes keyset pagination positions as opaque URL-safe strings. A cursor is a fixed number of
+ * parts; only the last part may contain the separator, so free-text sort values survive a round trip.
+ */
+public class CursorUtil {
+    private static final String SEPARATOR = "|";
+
+    private CursorUtil() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    public static String encode(String... parts) {
+        String raw = String.join(SEPARATOR, parts);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static String[] decode(String cursor, int expectedParts) {
+        String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+        String[] parts = raw.split("\\|", expectedParts);
+        if (parts.length != expectedParts) {
+            throw new BadRequestException("Invalid cursor");
+        }
+        return parts;
+    }
+}
@@ -0,0 +1,39 @@
+package com.java.test.junior.util;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Recognises compressed input by its magic bytes so callers never depend on file names or headers.
+ */
+public class DecompressingInputStreams {
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private DecompressingInputStreams() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Returns a stream that yields the decompressed content of {@code in} if it is gzip, or the content
+     * unchanged otherwise.
+     */
+    public static InputStream decompress(InputStream in) throws IOException {
+        BufferedInputStream buffered = new BufferedInputStream(in, BUFFER_SIZE);
+        buffered.mark(4);
+        int b0 = buffered.read();
+        int b1 = buffered.read();
+        int b2 = buffered.read();
+        int b3 = buffered.read();
+        buffered.reset();
+
+        if (b0 == 0x1f && b1 == 0x8b) {
+            return new GZIPInputStream(buffered, BUFFER_SIZE);
+        }
+        if (b0 == 0x28 && b1 == 0xb5 && b2 == 0x2f && b3 == 0xfd) {
+            throw new IOException("Zstandard-compressed input is not supported, use gzip");
+        }
+        return buffered;
+    }
+}
@@ -0,0 +1,211 @@
+package com.java.test.junior.util;
+
+import java.util.*;
+
+/**
+ * Case-insensitive prefix index over a set of strings.
+ *
+ * <p>The bulk of the data lives in one sorted {@code String[]}, which costs a single reference per
+ * entry on top of the strings themselves and is searched with a binary search for the prefix range.
+ * Writes go to a small sorted delta array and a removal set that are merged into the main array once
+ * they grow past a threshold. Readers always see an immutable snapshot and never lock.</p>
+ *
+ * <p>A rebuild loads its values from a scan that runs while writes continue. Writes made between
+ * {@link #beginRebuild()} and {@link #rebuild(Collection)} are recorded and replayed on top of the scanned
+ * values, so a write the scan missed is not lost. Replaying a write the scan already saw is harmless.</p>
+ */
+public class PrefixIndex {
+    private static final Comparator<String> ORDER =
+            String.CASE_INSENSITIVE_ORDER.thenComparing(Comparator.naturalOrder());
+    private static final String[] EMPTY = new String[0];
+
+    private final int compactionThreshold;
+    private volatile Snapshot snapshot = new Snapshot(EMPTY, EMPTY, Collections.emptySet());
+    // Writes since beginRebuild(), in order, each prefixed with '+' or '-'; null when no rebuild runs.
+    private List<String> journal;
+
+    public PrefixIndex(int compactionThreshold) {
+        this.compactionThreshold = compactionThreshold;
+    }
+
+    /**
+     * Starts recording writes for the next {@link #rebuild(Collection)}. Call it before the scan that
+     * produces the rebuilt values begins.
+     */
+    public synchronized void beginRebuild() {
+        journal = new ArrayList<>();
+    }
+
+    /**
+     * Replaces the whole content of the index with {@code values}, then replays the writes recorded since
+     * {@link #beginRebuild()}.
+     */
+    public void rebuild(Collection<String> values) {
+        String[] base = values.toArray(EMPTY);
+        Arrays.sort(base, ORDER);
+        Snapshot rebuilt = new Snapshot(dedupe(base), EMPTY, Collections.emptySet());
+        synchronized (this) {
+            List<String> replay = journal != null ? journal : Collections.emptyList();
+            journal = null;
+            // Only the last write to a value matters, so the journal collapses into one set of each.
+            Map<String, Boolean> lastWrites = new HashMap<>();
+            for (String write : replay) {
+                lastWrites.put(write.substring(1), write.charAt(0) == '+');
+            }
+            List<String> additions = new ArrayList<>();
+            List<String> removals = new ArrayList<>();
+            lastWrites.forEach((value, add) -> (add ? additions : removals).add(value));
+            snapshot = rebuilt;
+            apply(additions, removals);
+        }
+    }
+
+    public void add(String value) {
+        addAll(Collections.singletonList(value));
+    }
+
+    public synchronized void addAll(Collection<String> values) {
+        record('+', values);
+        apply(values, Collections.emptyList());
+    }
+
+    public void remove(String value) {
+        removeAll(Collections.singletonList(value));
+    }
+
+    public synchronized void removeAll(Collection<String> values) {
+        record('-', values);
+        apply(Collections.emptyList(), values);
+    }
+
+    /**
+     * Returns up to {@code limit} values starting with {@code prefix}, ignoring case, in index order.
+     */
+    public List<String> find(String prefix, int limit) {
+        Snapshot current = snapshot;
+        List<String> result = new ArrayList<>(Math.min(limit, 16));
+
+        String[] base = current.base;
+        String[] added = current.added;
+        int i = lowerBound(base, prefix);
+        int j = lowerBound(added, prefix);
+        String nextBase = matchAt(base, i, prefix);
+        String nextAdded = matchAt(added, j, prefix);
+
+        while (result.size() < limit && (nextBase != null || nextAdded != null)) {
+            if (nextAdded == null || (nextBase != null && ORDER.compare(nextBase, nextAdded) <= 0)) {
+                if (!current.removed.contains(nextBase)) {
+                    result.add(nextBase);
+                }
+                nextBase = matchAt(base, ++i, prefix);
+            } else {
+                result.add(nextAdded);
+                nextAdded = matchAt(added, ++j, prefix);
+            }
+        }
+        return result;
+    }
+
+    public int size() {
+        Snapshot current = snapshot;
+        return current.base.length - current.removed.size() + current.added.length;
+    }
+
+    private void record(char operation, Collection<String> values) {
+        if (journal != null) {
+            for (String value : values) {
+                journal.add(operation + value);
+            }
+        }
+    }
+
+    private void apply(Collection<String> additions, Collection<String> removals) {
+        Snapshot current = snapshot;
+        TreeSet<String> added = new TreeSet<>(ORDER);
+        Collections.addAll(added, current.added);
+        Set<String> removed = new HashSet<>(current.removed);
+        for (String value : additions) {
+            if (!removed.remove(value) && Arrays.binarySearch(current.base, value, ORDER) < 0) {
+                added.add(value);
+            }
+        }
+        for (String value : removals) {
+            if (!added.remove(value) && Arrays.binarySearch(current.base, value, ORDER) >= 0) {
+                removed.add(value);
+            }
+        }
+        publish(current.base, added, removed);
+    }
+
+    private void publish(String[] base, SortedSet<String> added, Set<String> removed) {
+        if (added.size() + removed.size() > compactionThreshold) {
+            snapshot = new Snapshot(merge(base, added, removed), EMPTY, Collections.emptySet());
+        } else {
+            snapshot = new Snapshot(base, added.toArray(EMPTY), removed);
+        }
+    }
+
+    private static String[] merge(String[] base, SortedSet<String> added, Set<String> removed) {
+        String[] merged = new String[base.length + added.size()];
+        Iterator<String> delta = added.iterator();
+        String nextDelta = delta.hasNext() ? delta.next() : null;
+        int i = 0;
+        int n = 0;
+        while (i < base.length || nextDelta != null) {
+            if (nextDelta == null || (i < base.length && ORDER.compare(base[i], nextDelta) <= 0)) {
+                if (!removed.contains(base[i])) {
+                    merged[n++] = base[i];
+                }
+                i++;
+            } else {
+                merged[n++] = nextDelta;
+                nextDelta = delta.hasNext() ? delta.next() : null;
+            }
+        }
+        return n == merged.length ? merged : Arrays.copyOf(merged, n);
+    }
+
+    private static String[] dedupe(String[] sorted) {
+        int n = 0;
+        for (String value : sorted) {
+            if (n == 0 || !sorted[n - 1].equals(value)) {
+                sorted[n++] = value;
+            }
+        }
+        return n == sorted.length ? sorted : Arrays.copyOf(sorted, n);
+    }
+
+    /**
+     * First position whose value is not below the prefix when case is ignored. The array is sorted
+     * case-insensitively first, so every match sits in one contiguous run starting here.
+     */
+    private static int lowerBound(String[] values, String prefix) {
+        int low = 0;
+        int high = values.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (String.CASE_INSENSITIVE_ORDER.compare(values[mid], prefix) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static String matchAt(String[] values, int i, String prefix) {
+        return i < values.length && values[i].regionMatches(true, 0, prefix, 0, prefix.length()) ? values[i] : null;
+    }
+
+    private static final class Snapshot {
+        private final String[] base;
+        private final String[] added;
+        private final Set<String> removed;
+
+        private Snapshot(String[] base, String[] added, Set<String> removed) {
+            this.base = base;
+            this.added = added;
+            this.removed = removed;
+        }
+    }
+}
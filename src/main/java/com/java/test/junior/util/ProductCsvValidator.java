@@ -0,0 +1,218 @@
+package com.java.test.junior.util;
+
+/**
+ * Checks a {@code name,price,description} CSV record against the constraints of the {@code product}
+ * table, so a bad row can be set aside before it reaches {@code COPY} and aborts the whole load.
+ *
+ * <p>It runs on the thread that feeds {@code COPY}, once per record, so a valid record is checked in one
+ * pass over its characters without allocating: fields are not split out and the price is not parsed into
+ * a number. Only a rejected record pays for building its message.</p>
+ */
+public class ProductCsvValidator {
+    private static final int COLUMNS = 3;
+    private static final int MAX_NAME_LENGTH = 255;
+    private static final String MAX_PRICE = "99999999.99";
+    // NUMERIC(10, 2) rounds half up to cents, so a price is too large from 99999999.995 on, which is
+    // 0.99999999995 times ten to the 8th: its first PRICE_DIGITS significant digits at PRICE_MAGNITUDE.
+    private static final long PRICE_LIMIT = 99_999_999_995L;
+    private static final int PRICE_DIGITS = 11;
+    private static final int PRICE_MAGNITUDE = 8;
+    // A negative price rounds to zero while it is below 0.005, five at the second place after the point.
+    private static final int NEGATIVE_MAGNITUDE = -2;
+    private static final int MAX_EXPONENT = 1_000_000;
+
+    // Price syntax, the grammar BigDecimal accepts: [sign] digits [. digits] [e [sign] digits], trimmed.
+    private static final int SIGN = 0;
+    private static final int INTEGER = 1;
+    private static final int FRACTION = 2;
+    private static final int EXPONENT_SIGN = 3;
+    private static final int EXPONENT = 4;
+    private static final int INVALID = 5;
+
+    private ProductCsvValidator() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Returns why the record cannot be loaded, or {@code null} when it is valid.
+     */
+    public static String validate(String record) {
+        int fields = 1;
+        boolean inQuotes = false;
+        int nameLength = 0;
+        boolean nameBlank = true;
+        char previous = 0;
+
+        int priceState = SIGN;
+        boolean priceStarted = false;
+        boolean priceEnded = false;
+        boolean negative = false;
+        boolean mantissaDigits = false;
+        boolean exponentDigits = false;
+        boolean exponentNegative = false;
+        int exponent = 0;
+        // The price is 0.d1d2d3... times ten to the magnitude; leading holds its first significant digits.
+        int magnitude = 0;
+        int significant = 0;
+        long leading = 0;
+        boolean pointSeen = false;
+
+        int length = record.length();
+        for (int i = 0; i < length; i++) {
+            char c = record.charAt(i);
+            if (c == '\0') {
+                return "Record contains a NUL character";
+            }
+            if (c == ReportingUtf8Reader.MALFORMED && (i == 0 || !Character.isHighSurrogate(record.charAt(i - 1)))) {
+                return "Record is not valid UTF-8";
+            }
+            if (inQuotes) {
+                if (c == '"') {
+                    if (i + 1 < length && record.charAt(i + 1) == '"') {
+                        i++;
+                    } else {
+                        inQuotes = false;
+                        continue;
+                    }
+                }
+            } else if (c == '"') {
+                inQuotes = true;
+                continue;
+            } else if (c == ',') {
+                fields++;
+                continue;
+            }
+
+            if (fields == 1) {
+                // Counted like String.codePointCount: a surrogate pair is one character.
+                if (!Character.isLowSurrogate(c) || !Character.isHighSurrogate(previous)) {
+                    nameLength++;
+                }
+                nameBlank &= c <= ' ';
+                previous = c;
+            } else if (fields == 2 && priceState != INVALID) {
+                boolean digit = c >= '0' && c <= '9';
+                if (c <= ' ') {
+                    priceEnded = priceStarted;
+                    continue;
+                }
+                priceStarted = true;
+                if (priceEnded) {
+                    priceState = INVALID;
+                } else if (digit && (priceState == SIGN || priceState == INTEGER || priceState == FRACTION)) {
+                    priceState = pointSeen ? FRACTION : INTEGER;
+                    mantissaDigits = true;
+                    if (c != '0' || significant > 0) {
+                        if (significant < PRICE_DIGITS) {
+                            leading = leading * 10 + (c - '0');
+                        }
+                        significant++;
+                        if (!pointSeen) {
+                            magnitude++;
+                        }
+                    } else if (pointSeen) {
+                        magnitude--;
+                    }
+                } else if (digit && (priceState == EXPONENT_SIGN || priceState == EXPONENT)) {
+                    priceState = EXPONENT;
+                    exponentDigits = true;
+                    exponent = Math.min(exponent * 10 + (c - '0'), MAX_EXPONENT);
+                } else if ((c == '-' || c == '+') && priceState == SIGN) {
+                    negative = c == '-';
+                    priceState = INTEGER;
+                } else if ((c == '-' || c == '+') && priceState == EXPONENT_SIGN) {
+                    exponentNegative = c == '-';
+                    priceState = EXPONENT;
+                } else if (c == '.' && !pointSeen && (priceState == SIGN || priceState == INTEGER)) {
+                    pointSeen = true;
+                    priceState = FRACTION;
+                } else if ((c == 'e' || c == 'E') && mantissaDigits
+                        && (priceState == INTEGER || priceState == FRACTION)) {
+                    priceState = EXPONENT_SIGN;
+                } else {
+                    priceState = INVALID;
+                }
+            }
+        }
+        if (inQuotes) {
+            return "Unterminated quoted field";
+        }
+        if (fields != COLUMNS) {
+            return "Expected " + COLUMNS + " columns but found " + fields;
+        }
+        if (nameBlank) {
+            return "Name is required";
+        }
+        if (nameLength > MAX_NAME_LENGTH) {
+            return "Name exceeds " + MAX_NAME_LENGTH + " characters";
+        }
+
+        if (!priceStarted) {
+            return "Price is required";
+        }
+        if (priceState == INVALID || !mantissaDigits || priceState == EXPONENT_SIGN
+                || priceState == EXPONENT && !exponentDigits) {
+            return "Price is not a number: " + field(record, 1).trim();
+        }
+        if (significant == 0) {
+            return null;
+        }
+        magnitude += exponentNegative ? -exponent : exponent;
+        if (negative) {
+            if (magnitude > NEGATIVE_MAGNITUDE
+                    || magnitude == NEGATIVE_MAGNITUDE && firstDigit(leading, significant) >= 5) {
+                return "Price must be non-negative";
+            }
+            return null;
+        }
+        if (magnitude > PRICE_MAGNITUDE || magnitude == PRICE_MAGNITUDE && pad(leading, significant) >= PRICE_LIMIT) {
+            return "Price exceeds " + MAX_PRICE;
+        }
+        return null;
+    }
+
+    private static int firstDigit(long leading, int significant) {
+        long digit = leading;
+        for (int i = 1; i < Math.min(significant, PRICE_DIGITS); i++) {
+            digit /= 10;
+        }
+        return (int) digit;
+    }
+
+    private static long pad(long leading, int significant) {
+        for (int i = significant; i < PRICE_DIGITS; i++) {
+            leading *= 10;
+        }
+        return leading;
+    }
+
+    /**
+     * The unquoted text of a field, for messages about a rejected record.
+     */
+    private static String field(String record, int index) {
+        StringBuilder field = new StringBuilder();
+        int current = 0;
+        boolean inQuotes = false;
+        for (int i = 0; i < record.length(); i++) {
+            char c = record.charAt(i);
+            if (inQuotes) {
+                if (c == '"' && i + 1 < record.length() && record.charAt(i + 1) == '"') {
+                    i++;
+                } else if (c == '"') {
+                    inQuotes = false;
+                    continue;
+                }
+            } else if (c == '"') {
+                inQuotes = true;
+                continue;
+            } else if (c == ',') {
+                current++;
+                continue;
+            }
+            if (current == index) {
+                field.append(c);
+            }
+        }
+        return field.toString();
+    }
+}
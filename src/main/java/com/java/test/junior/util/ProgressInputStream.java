@@ -0,0 +1,57 @@
+package com.java.test.junior.util;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Counts the bytes read from the wrapped stream and fails the next read once {@code cancelled} turns
+ * true. Whoever is consuming the stream, such as a running {@code COPY}, sees an I/O error and aborts.
+ */
+public class ProgressInputStream extends FilterInputStream {
+    private final AtomicLong bytesRead;
+    private final BooleanSupplier cancelled;
+
+    public ProgressInputStream(InputStream in, AtomicLong bytesRead, BooleanSupplier cancelled) {
+        super(in);
+        this.bytesRead = bytesRead;
+        this.cancelled = cancelled;
+    }
+
+    @Override
+    public int read() throws IOException {
+        checkCancelled();
+        int b = super.read();
+        if (b >= 0) {
+            bytesRead.incrementAndGet();
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        checkCancelled();
+        int count = super.read(buffer, offset, length);
+        if (count > 0) {
+            bytesRead.addAndGet(count);
+        }
+        return count;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        checkCancelled();
+        long skipped = super.skip(n);
+        bytesRead.addAndGet(skipped);
+        return skipped;
+    }
+
+    private void checkCancelled() throws InterruptedIOException {
+        if (cancelled.getAsBoolean()) {
+            throw new InterruptedIOException("Import cancelled");
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.java.test.junior.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Decodes UTF-8 with {@link CodingErrorAction#REPORT} instead of silently replacing bad input with U+FFFD.
+ * Each malformed byte sequence comes out as {@link #MALFORMED}, an unpaired surrogate, which well-formed
+ * UTF-8 never decodes to, so a reader further on can tell exactly which record held it and reject that
+ * record alone instead of failing the whole stream.
+ */
+public class ReportingUtf8Reader extends Reader {
+    public static final char MALFORMED = '\uDC80';
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final InputStream source;
+    private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPORT)
+            .onUnmappableCharacter(CodingErrorAction.REPORT);
+    private final ByteBuffer bytes = ByteBuffer.allocate(BUFFER_SIZE).flip();
+    private boolean endOfInput;
+
+    public ReportingUtf8Reader(InputStream source) {
+        this.source = source;
+    }
+
+    @Override
+    public int read(char[] buffer, int offset, int length) throws IOException {
+        if (length == 0) {
+            return 0;
+        }
+        CharBuffer out = CharBuffer.wrap(buffer, offset, length);
+        while (out.hasRemaining()) {
+            CoderResult result = decoder.decode(bytes, out, endOfInput);
+            if (result.isError()) {
+                if (!out.hasRemaining()) {
+                    // Reported again by the next read, which has room for the marker.
+                    break;
+                }
+                bytes.position(bytes.position() + result.length());
+                out.put(MALFORMED);
+            } else if (result.isOverflow() || out.position() > offset || endOfInput) {
+                // Hands over what is decoded rather than blocking on the source for more.
+                break;
+            } else {
+                fill();
+            }
+        }
+        int decoded = out.position() - offset;
+        return decoded == 0 && endOfInput ? -1 : decoded;
+    }
+
+    private void fill() throws IOException {
+        bytes.compact();
+        int read = source.read(bytes.array(), bytes.position(), bytes.remaining());
+        if (read < 0) {
+            endOfInput = true;
+        } else {
+            bytes.position(bytes.position() + read);
+        }
+        bytes.flip();
+    }
+
+    @Override
+    public void close() throws IOException {
+        source.close();
+    }
+}
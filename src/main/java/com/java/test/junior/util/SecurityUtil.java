@@ -0,0 +1,21 @@
+package com.java.test.junior.util;
+
+import com.java.test.junior.exception.UnauthorizedException;
+import com.java.test.junior.security.UserPrincipal;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+public class SecurityUtil {
+
+    private SecurityUtil() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    public static UserPrincipal getCurrentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !(authentication.getPrincipal() instanceof UserPrincipal)) {
+            throw new UnauthorizedException("Authenticated user not found");
+        }
+        return (UserPrincipal) authentication.getPrincipal();
+    }
+}
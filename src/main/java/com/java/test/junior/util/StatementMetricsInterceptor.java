@@ -0,0 +1,85 @@
+package com.java.test.junior.util;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times every mapper statement as {@code mybatis.statement}, tagged with the statement as
+ * {@code Mapper.method} and whether it threw. For a cursor the time is that of opening it; rows fetched
+ * later are not included.
+ *
+ * <p>The registry arrives through {@link MeterBinder} rather than the constructor: the registry binds
+ * services whose mappers need the session factory, which needs this interceptor. Statements that run
+ * before binding are not timed.</p>
+ */
+@Intercepts({
+        @Signature(type = Executor.class, method = "update", args = {MappedStatement.class, Object.class}),
+        @Signature(type = Executor.class, method = "query",
+                args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class}),
+        @Signature(type = Executor.class, method = "query",
+                args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class, CacheKey.class,
+                        BoundSql.class}),
+        @Signature(type = Executor.class, method = "queryCursor",
+                args = {MappedStatement.class, Object.class, RowBounds.class})
+})
+public class StatementMetricsInterceptor implements Interceptor, MeterBinder {
+    public static final String METRIC = "mybatis.statement";
+
+    private volatile MeterRegistry meterRegistry;
+    private final ConcurrentHashMap<String, Timer> succeeded = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Timer> failed = new ConcurrentHashMap<>();
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        this.meterRegistry = registry;
+    }
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        MeterRegistry registry = meterRegistry;
+        if (registry == null) {
+            return invocation.proceed();
+        }
+        String statementId = ((MappedStatement) invocation.getArgs()[0]).getId();
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            Object result = invocation.proceed();
+            success = true;
+            return result;
+        } finally {
+            timer(registry, statementId, success).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private Timer timer(MeterRegistry registry, String statementId, boolean success) {
+        return (success ? succeeded : failed).computeIfAbsent(statementId, id -> Timer.builder(METRIC)
+                .description("Execution time of MyBatis mapper statements")
+                .tag("statement", shortName(id))
+                .tag("outcome", success ? "success" : "error")
+                .register(registry));
+    }
+
+    /**
+     * {@code com.java.test.junior.mapper.ProductMapper.findAll} becomes {@code ProductMapper.findAll}.
+     */
+    private static String shortName(String statementId) {
+        int method = statementId.lastIndexOf('.');
+        int type = method > 0 ? statementId.lastIndexOf('.', method - 1) : -1;
+        return statementId.substring(type + 1);
+    }
+}
@@ -0,0 +1,75 @@
+package com.java.test.junior.util;
+
+import com.java.test.junior.model.ProductLikeCount;
+
+import java.util.*;
+
+/**
+ * Keeps the products with the highest like counts, ordered by count and then id.
+ *
+ * <p>Updates carry absolute counts, so applying one twice is harmless. The index tracks more entries than
+ * it is ever asked for: a tracked product whose count drops is kept as long as it fits, but a product that
+ * falls out is forgotten, and one never seen may in truth outrank what is left. The slack and a periodic
+ * {@link #rebuild} keep that window small. Readers get an immutable snapshot and never lock.</p>
+ */
+public class TopKIndex {
+    private static final Comparator<ProductLikeCount> ORDER =
+            Comparator.comparingLong(ProductLikeCount::getLikeCount).reversed()
+                    .thenComparing(ProductLikeCount::getId);
+
+    private final int capacity;
+    private final Map<Long, ProductLikeCount> entries = new HashMap<>();
+    private final TreeSet<ProductLikeCount> ranking = new TreeSet<>(ORDER);
+    private volatile List<ProductLikeCount> snapshot = Collections.emptyList();
+
+    public TopKIndex(int capacity) {
+        this.capacity = capacity;
+    }
+
+    /**
+     * Replaces the whole content of the index.
+     */
+    public synchronized void rebuild(Collection<ProductLikeCount> counts) {
+        entries.clear();
+        ranking.clear();
+        update(counts);
+    }
+
+    public synchronized void update(Collection<ProductLikeCount> counts) {
+        for (ProductLikeCount count : counts) {
+            ProductLikeCount previous = entries.remove(count.getId());
+            if (previous != null) {
+                ranking.remove(previous);
+            }
+            if (count.getLikeCount() > 0
+                    && (ranking.size() < capacity || ORDER.compare(count, ranking.last()) < 0)) {
+                entries.put(count.getId(), count);
+                ranking.add(count);
+            }
+        }
+        while (ranking.size() > capacity) {
+            entries.remove(ranking.pollLast().getId());
+        }
+        snapshot = List.copyOf(ranking);
+    }
+
+    public synchronized void remove(Long id) {
+        ProductLikeCount previous = entries.remove(id);
+        if (previous != null) {
+            ranking.remove(previous);
+            snapshot = List.copyOf(ranking);
+        }
+    }
+
+    /**
+     * Returns up to {@code limit} entries, most liked first.
+     */
+    public List<ProductLikeCount> top(int limit) {
+        List<ProductLikeCount> current = snapshot;
+        return current.subList(0, Math.min(limit, current.size()));
+    }
+
+    public int size() {
+        return snapshot.size();
+    }
+}
@@ -0,0 +1,28 @@
+package com.java.test.junior.util;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+public class TransactionUtil {
+    private TransactionUtil() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Runs {@code action} once the current transaction commits, and not at all if it rolls back, so
+     * in-memory state such as caches and indexes never reflects writes that did not happen. Without an
+     * active transaction the writes are already committed and it runs right away.
+     */
+    public static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,45 @@
+package com.java.test.junior.util;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.function.Function;
+
+/**
+ * A {@link CsvRecordReader} that checks every record after the header and hands the ones that fail to a
+ * {@link RejectListener} instead of returning them. Only valid records reach the caller.
+ */
+public class ValidatingCsvRecordReader extends CsvRecordReader {
+    private final Function<String, String> validator;
+    private final RejectListener rejectListener;
+
+    /**
+     * @param validator returns the reason a record is invalid, or {@code null} when it is fine
+     */
+    public ValidatingCsvRecordReader(Reader source, Function<String, String> validator,
+                                     RejectListener rejectListener) {
+        super(source);
+        this.validator = validator;
+        this.rejectListener = rejectListener;
+    }
+
+    @Override
+    public String readRecord() throws IOException {
+        String record;
+        while ((record = super.readRecord()) != null) {
+            if (getRecordNumber() == 1) {
+                return record;
+            }
+            String reason = validator.apply(record);
+            if (reason == null) {
+                return record;
+            }
+            rejectListener.reject(getRecordNumber(), reason, record);
+        }
+        return null;
+    }
+
+    @FunctionalInterface
+    public interface RejectListener {
+        void reject(long recordNumber, String reason, String record) throws IOException;
+    }
+}
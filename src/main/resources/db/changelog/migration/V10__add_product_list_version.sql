@@ -0,0 +1,17 @@
+CREATE SEQUENCE IF NOT EXISTS product_list_version_seq;
+
+CREATE OR REPLACE FUNCTION bump_product_list_version() RETURNS trigger AS
+$$
+BEGIN
+    PERFORM nextval('product_list_version_seq');
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_product_list_version ON product;
+
+CREATE TRIGGER trg_product_list_version
+    AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE
+    ON product
+    FOR EACH STATEMENT
+EXECUTE FUNCTION bump_product_list_version();
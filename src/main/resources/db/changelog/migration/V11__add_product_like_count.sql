@@ -0,0 +1,16 @@
+ALTER TABLE product ADD COLUMN IF NOT EXISTS like_count BIGINT NOT NULL DEFAULT 0;
+
+UPDATE product p
+SET like_count = l.likes
+FROM (SELECT product_id, count(*) AS likes FROM user_product GROUP BY product_id) l
+WHERE p.id = l.product_id;
+
+CREATE INDEX IF NOT EXISTS idx_product_like_count ON product (like_count DESC, id);
+
+CREATE TABLE IF NOT EXISTS product_like_delta (
+    product_id BIGINT   NOT NULL,
+    slot       SMALLINT NOT NULL,
+    delta      BIGINT   NOT NULL,
+    CONSTRAINT pk_product_like_delta PRIMARY KEY (product_id, slot),
+    CONSTRAINT fk_product_like_delta_product FOREIGN KEY (product_id) REFERENCES product(id) ON DELETE CASCADE
+);
@@ -0,0 +1 @@
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_password_reset_token_expiry ON password_reset_token (expiry);
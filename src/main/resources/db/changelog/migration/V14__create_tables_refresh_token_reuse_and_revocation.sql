@@ -0,0 +1,16 @@
+CREATE TABLE IF NOT EXISTS used_refresh_token
+(
+    token_id   VARCHAR(36)  PRIMARY KEY,
+    username   VARCHAR(255) NOT NULL,
+    expires_at TIMESTAMP    NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_used_refresh_token_expires_at ON used_refresh_token (expires_at);
+
+CREATE TABLE IF NOT EXISTS token_revocation
+(
+    username   VARCHAR(255) PRIMARY KEY,
+    revoked_at BIGINT       NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_token_revocation_revoked_at ON token_revocation (revoked_at);
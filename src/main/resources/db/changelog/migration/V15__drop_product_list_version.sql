@@ -0,0 +1,5 @@
+DROP TRIGGER IF EXISTS trg_product_list_version ON product;
+
+DROP FUNCTION IF EXISTS bump_product_list_version();
+
+DROP SEQUENCE IF EXISTS product_list_version_seq;
@@ -0,0 +1 @@
+ALTER TABLE product ADD COLUMN IF NOT EXISTS like_count_updated_at TIMESTAMP;
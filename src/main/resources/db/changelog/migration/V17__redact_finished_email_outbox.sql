@@ -0,0 +1,3 @@
+ALTER TABLE email_outbox ALTER COLUMN body DROP NOT NULL;
+
+UPDATE email_outbox SET body = NULL WHERE status IN ('SENT', 'FAILED') AND body IS NOT NULL;
@@ -0,0 +1,2 @@
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_email_outbox_finished ON email_outbox (created_at)
+    WHERE status IN ('SENT', 'FAILED');
@@ -0,0 +1,14 @@
+CREATE TABLE IF NOT EXISTS import_job
+(
+    id              BIGSERIAL PRIMARY KEY,
+    source          TEXT        NOT NULL,
+    status          VARCHAR(20) NOT NULL,
+    total_bytes     BIGINT,
+    bytes_processed BIGINT      NOT NULL DEFAULT 0,
+    rows_processed  BIGINT      NOT NULL DEFAULT 0,
+    error_message   TEXT,
+    created_at      TIMESTAMP   NOT NULL DEFAULT NOW(),
+    started_at      TIMESTAMP,
+    finished_at     TIMESTAMP,
+    updated_at      TIMESTAMP   NOT NULL DEFAULT NOW()
+);
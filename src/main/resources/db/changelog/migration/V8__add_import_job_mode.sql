@@ -0,0 +1 @@
+ALTER TABLE import_job ADD COLUMN IF NOT EXISTS mode VARCHAR(10) NOT NULL DEFAULT 'insert';
@@ -0,0 +1,2 @@
+ALTER TABLE import_job ADD COLUMN IF NOT EXISTS rows_rejected BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE import_job ADD COLUMN IF NOT EXISTS max_errors BIGINT;
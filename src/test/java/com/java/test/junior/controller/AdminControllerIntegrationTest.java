@@ -3,23 +3,42 @@ package com.java.test.junior.controller;
 import com.java.test.junior.BaseIntegrationTest;
 import com.java.test.junior.util.TestDataHelper;
 import io.restassured.RestAssured;
+import io.restassured.builder.MultiPartSpecBuilder;
+import io.restassured.response.ValidatableResponse;
+import org.hamcrest.Matcher;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestMethodOrder;
 import org.junit.jupiter.api.MethodOrderer;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.metrics.AutoConfigureMetrics;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.sql.Connection;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
 import static io.restassured.RestAssured.given;
 import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@AutoConfigureMetrics
 class AdminControllerIntegrationTest extends BaseIntegrationTest {
     @Autowired
     private TestDataHelper testDataHelper;
 
     private String validCsvPath;
+    private String invalidRowsCsvPath;
 
     @BeforeEach
     void setUpTest(){
@@ -28,35 +47,400 @@ class AdminControllerIntegrationTest extends BaseIntegrationTest {
         testDataHelper.createAdminUser();
         adminAuth = createBasicAuthHeader("admin", "123456");
 
-        Path resourcePath = Paths.get("C:\\GlobalDatabaseInternship\\java-junior\\src\\test\\java\\resources\\products.csv");
+        Path resourcePath = Paths.get("src", "test", "java", "resources", "products.csv").toAbsolutePath();
         validCsvPath = resourcePath.toString();
+        invalidRowsCsvPath = resourcePath.resolveSibling("products_with_errors.csv").toString();
 
     }
 
     @Test
     void testLoadProducts_ValidLocalFile_Success() {
-        given()
+        long jobId = given()
                 .header("Authorization", adminAuth)
                 .queryParam("path", validCsvPath)
                 .when()
                 .post(getApiUrl("/admin/loading/products"))
                 .then()
-                .statusCode(200)
+                .statusCode(202)
                 .body("success", equalTo(true))
-                .body("message", equalTo("CSV file copied successfully"));
+                .body("message", equalTo("Import job started"))
+                .body("data.id", notNullValue())
+                .extract().jsonPath().getLong("data.id");
+
+        awaitJob(jobId)
+                .body("data.status", equalTo("COMPLETED"))
+                .body("data.rowsProcessed", greaterThan(0))
+                .body("data.bytesProcessed", greaterThan(0));
+        assertSuggestions("TestProduct", contains("TestProduct1", "TestProduct2"));
     }
 
     @Test
     void testLoadProducts_ValidUrl_Success() {
+        long jobId = given()
+                .header("Authorization", adminAuth)
+                .queryParam("path", validCsvPath)
+                .when()
+                .post(getApiUrl("/admin/loading/products"))
+                .then()
+                .statusCode(202)
+                .body("success", equalTo(true))
+                .body("message", equalTo("Import job started"))
+                .body("data.id", notNullValue())
+                .extract().jsonPath().getLong("data.id");
+
+        awaitJob(jobId)
+                .body("data.status", equalTo("COMPLETED"))
+                .body("data.rowsProcessed", greaterThan(0))
+                .body("data.bytesProcessed", greaterThan(0));
+    }
+
+    @Test
+    void testLoadProducts_Parallel_Success() {
+        long jobId = given()
+                .header("Authorization", adminAuth)
+                .queryParam("path", validCsvPath)
+                .queryParam("parallelism", 2)
+                .when()
+                .post(getApiUrl("/admin/loading/products"))
+                .then()
+                .statusCode(202)
+                .body("success", equalTo(true))
+                .body("message", equalTo("Import job started"))
+                .body("data.id", notNullValue())
+                .extract().jsonPath().getLong("data.id");
+
+        awaitJob(jobId)
+                .body("data.status", equalTo("COMPLETED"))
+                .body("data.rowsProcessed", greaterThan(0))
+                .body("data.bytesProcessed", greaterThan(0));
+    }
+
+    @Test
+    void testLoadProducts_UpsertTwice_SecondRunChangesNothing() {
+        for (int expectedRows : new int[]{2, 0}) {
+            long jobId = given()
+                    .header("Authorization", adminAuth)
+                    .queryParam("path", validCsvPath)
+                    .queryParam("mode", "upsert")
+                    .when()
+                    .post(getApiUrl("/admin/loading/products"))
+                    .then()
+                    .statusCode(202)
+                    .body("data.mode", equalTo("upsert"))
+                    .extract().jsonPath().getLong("data.id");
+
+            awaitJob(jobId)
+                    .body("data.status", equalTo("COMPLETED"))
+                    .body("data.rowsProcessed", equalTo(expectedRows));
+        }
+    }
+
+    @Test
+    void testLoadProducts_ParallelUpsert_LastRecordWins() throws IOException {
+        // Two records for one name more than a chunk apart, so different workers can stage them.
+        Path csv = Files.createTempFile("duplicate-products", ".csv");
+        try {
+            StringBuilder content = new StringBuilder("name,price,description\n");
+            content.append("Duplicate,1.00,First\n");
+            for (int i = 0; i < 40_000; i++) {
+                content.append("Filler").append(i).append(",1.00,Filler description\n");
+            }
+            content.append("Duplicate,2.00,Last\n");
+            Files.write(csv, content.toString().getBytes(StandardCharsets.UTF_8));
+
+            long jobId = given()
+                    .header("Authorization", adminAuth)
+                    .queryParam("path", csv.toString())
+                    .queryParam("mode", "upsert")
+                    .queryParam("parallelism", 4)
+                    .when()
+                    .post(getApiUrl("/admin/loading/products"))
+                    .then()
+                    .statusCode(202)
+                    .extract().jsonPath().getLong("data.id");
+            awaitJob(jobId).body("data.status", equalTo("COMPLETED"));
+        } finally {
+            Files.delete(csv);
+        }
+
+        testDataHelper.createTestUser(2, "testuser");
+        given()
+                .header("Authorization", createBasicAuthHeader("testuser", "123456"))
+                .when()
+                .get(getApiUrl("/products/name/Duplicate"))
+                .then()
+                .statusCode(200)
+                .body("data.description", equalTo("Last"));
+    }
+
+    @Test
+    void testLoadProducts_InvalidMode_Failure() {
         given()
                 .header("Authorization", adminAuth)
                 .queryParam("path", validCsvPath)
+                .queryParam("mode", "replace")
+                .when()
+                .post(getApiUrl("/admin/loading/products"))
+                .then()
+                .statusCode(400)
+                .body("success", equalTo(false));
+    }
+
+    @Test
+    void testLoadProducts_InvalidRows_Rejected() {
+        long jobId = given()
+                .header("Authorization", adminAuth)
+                .queryParam("path", invalidRowsCsvPath)
+                .when()
+                .post(getApiUrl("/admin/loading/products"))
+                .then()
+                .statusCode(202)
+                .extract().jsonPath().getLong("data.id");
+
+        awaitJob(jobId)
+                .body("data.status", equalTo("COMPLETED"))
+                .body("data.rowsProcessed", equalTo(2))
+                .body("data.rowsRejected", equalTo(2));
+
+        given()
+                .header("Authorization", adminAuth)
+                .when()
+                .get(getApiUrl("/admin/loading/jobs/" + jobId + "/rejects"))
+                .then()
+                .statusCode(200)
+                .body(startsWith("record_number,reason,record\n"))
+                .body(containsString("3,\"Price is not a number: abc\""))
+                .body(containsString("4,\"Expected 3 columns but found 4\""));
+    }
+
+    @Test
+    void testPurgeRejectFiles_DeletesFilesPastRetention() throws IOException {
+        long jobId = given()
+                .header("Authorization", adminAuth)
+                .queryParam("path", invalidRowsCsvPath)
                 .when()
                 .post(getApiUrl("/admin/loading/products"))
                 .then()
+                .statusCode(202)
+                .extract().jsonPath().getLong("data.id");
+        awaitJob(jobId).body("data.rowsRejected", equalTo(2));
+
+        testDataHelper.purgeImportRejectFiles();
+        given()
+                .header("Authorization", adminAuth)
+                .when()
+                .get(getApiUrl("/admin/loading/jobs/" + jobId + "/rejects"))
+                .then()
+                .statusCode(200);
+
+        testDataHelper.expireImportRejects(jobId);
+        testDataHelper.purgeImportRejectFiles();
+        given()
+                .header("Authorization", adminAuth)
+                .when()
+                .get(getApiUrl("/admin/loading/jobs/" + jobId + "/rejects"))
+                .then()
+                .statusCode(404);
+    }
+
+    @Test
+    void testLoadProducts_ErrorBudgetExceeded_Failure() {
+        long jobId = given()
+                .header("Authorization", adminAuth)
+                .queryParam("path", invalidRowsCsvPath)
+                .queryParam("maxErrors", 1)
+                .when()
+                .post(getApiUrl("/admin/loading/products"))
+                .then()
+                .statusCode(202)
+                .extract().jsonPath().getLong("data.id");
+
+        awaitJob(jobId)
+                .body("data.status", equalTo("FAILED"))
+                .body("data.rowsProcessed", equalTo(0))
+                .body("data.errorMessage", equalTo("Rejected rows exceeded the error budget of 1"));
+    }
+
+    @Test
+    void testUploadProducts_Csv_Success() {
+        given()
+                .header("Authorization", adminAuth)
+                .multiPart("file", new File(validCsvPath), "text/csv")
+                .when()
+                .post(getApiUrl("/admin/loading/products/upload"))
+                .then()
+                .statusCode(200)
+                .body("success", equalTo(true))
+                .body("message", equalTo("Import job finished"))
+                .body("data.status", equalTo("COMPLETED"))
+                .body("data.rowsProcessed", equalTo(2))
+                // The part carries no Content-Length, and the request's would include the multipart framing.
+                .body("data.totalBytes", nullValue());
+    }
+
+    @Test
+    void testUploadProducts_PartContentLength_TotalBytes() throws IOException {
+        byte[] csv = Files.readAllBytes(Paths.get(validCsvPath));
+
+        given()
+                .header("Authorization", adminAuth)
+                .multiPart(new MultiPartSpecBuilder(csv)
+                        .controlName("file")
+                        .fileName("products.csv")
+                        .mimeType("text/csv")
+                        .header("Content-Length", String.valueOf(csv.length))
+                        .build())
+                .when()
+                .post(getApiUrl("/admin/loading/products/upload"))
+                .then()
+                .statusCode(200)
+                .body("data.status", equalTo("COMPLETED"))
+                .body("data.totalBytes", equalTo(csv.length));
+    }
+
+    @Test
+    void testUploadProducts_Gzip_Success() throws IOException {
+        Path gzipped = Files.createTempFile("products", ".csv.gz");
+        try {
+            try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(gzipped))) {
+                Files.copy(Paths.get(validCsvPath), out);
+            }
+
+            given()
+                    .header("Authorization", adminAuth)
+                    .multiPart("file", gzipped.toFile(), "application/gzip")
+                    .when()
+                    .post(getApiUrl("/admin/loading/products/upload"))
+                    .then()
+                    .statusCode(200)
+                    .body("data.status", equalTo("COMPLETED"))
+                    .body("data.rowsProcessed", equalTo(2));
+        } finally {
+            Files.delete(gzipped);
+        }
+    }
+
+    @Test
+    void testUploadProducts_MalformedUtf8_Rejected() {
+        // 0xFF never occurs in UTF-8.
+        ByteArrayOutputStream csv = new ByteArrayOutputStream();
+        csv.writeBytes("name,price,description\nValid,10.00,Fine\nBad".getBytes(StandardCharsets.UTF_8));
+        csv.write(0xFF);
+        csv.writeBytes(",5.00,Broken\n".getBytes(StandardCharsets.UTF_8));
+
+        long jobId = given()
+                .header("Authorization", adminAuth)
+                .multiPart("file", "products.csv", csv.toByteArray(), "text/csv")
+                .when()
+                .post(getApiUrl("/admin/loading/products/upload"))
+                .then()
+                .statusCode(200)
+                .body("data.status", equalTo("COMPLETED"))
+                .body("data.rowsProcessed", equalTo(1))
+                .body("data.rowsRejected", equalTo(1))
+                .extract().jsonPath().getLong("data.id");
+
+        given()
+                .header("Authorization", adminAuth)
+                .when()
+                .get(getApiUrl("/admin/loading/jobs/" + jobId + "/rejects"))
+                .then()
+                .statusCode(200)
+                .body(containsString("3,\"Record is not valid UTF-8\",\"Bad�,5.00,Broken\""));
+    }
+
+    @Test
+    void testUploadProducts_ErrorBudgetExceeded_Unprocessable() {
+        given()
+                .header("Authorization", adminAuth)
+                .queryParam("maxErrors", 1)
+                .multiPart("file", new File(invalidRowsCsvPath), "text/csv")
+                .when()
+                .post(getApiUrl("/admin/loading/products/upload"))
+                .then()
+                .statusCode(422)
+                .body("success", equalTo(false))
+                .body("message", equalTo("Import job failed: Rejected rows exceeded the error budget of 1"))
+                .body("data.status", equalTo("FAILED"));
+    }
+
+    @Test
+    void testUploadProducts_Forbidden() {
+        testDataHelper.createTestUser(2, "testuser");
+        String userAuth = createBasicAuthHeader("testuser", "123456");
+
+        given()
+                .header("Authorization", userAuth)
+                .multiPart("file", new File(validCsvPath), "text/csv")
+                .when()
+                .post(getApiUrl("/admin/loading/products/upload"))
+                .then()
+                .statusCode(403);
+    }
+
+    @Test
+    void testExportProducts_Csv_Success() {
+        testDataHelper.createTestProduct("ExportCheap", 5.0, "Cheap", "admin");
+        testDataHelper.createTestProduct("ExportExpensive", 500.0, "Expensive", "admin");
+
+        given()
+                .header("Authorization", adminAuth)
+                .queryParam("minPrice", 100)
+                .when()
+                .get(getApiUrl("/admin/export/products"))
+                .then()
+                .statusCode(200)
+                .header("Content-Disposition", containsString("products.csv"))
+                .body(startsWith("id,name,price,description,user_id,created_at,updated_at"))
+                .body(containsString("ExportExpensive"))
+                .body(not(containsString("ExportCheap")));
+    }
+
+    @Test
+    void testExportProducts_Gzip_Success() throws IOException {
+        testDataHelper.createTestProduct("ExportGzip", 5.0, "Compressed", "admin");
+
+        byte[] body = given()
+                .header("Authorization", adminAuth)
+                .queryParam("gzip", true)
+                .when()
+                .get(getApiUrl("/admin/export/products"))
+                .then()
+                .statusCode(200)
+                .contentType("application/gzip")
+                .extract().asByteArray();
+
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            String csv = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            assertTrue(csv.contains("ExportGzip"));
+        }
+    }
+
+    @Test
+    void testExportProducts_InvalidUserId_BadRequest() {
+        given()
+                .header("Authorization", adminAuth)
+                .queryParam("userId", 0)
+                .when()
+                .get(getApiUrl("/admin/export/products"))
+                .then()
+                .statusCode(400)
+                .body("success", equalTo(false))
+                .body("message", equalTo("Validation failed: User id must be positive"));
+    }
+
+    @Test
+    void testProductCacheStats_Success() {
+        given()
+                .header("Authorization", adminAuth)
+                .when()
+                .get(getApiUrl("/admin/cache/products"))
+                .then()
                 .statusCode(200)
                 .body("success", equalTo(true))
-                .body("message", equalTo("CSV file copied successfully"));
+                .body("data.maxEntries", greaterThan(0))
+                .body("data.hits", greaterThanOrEqualTo(0))
+                .body("data.misses", greaterThanOrEqualTo(0));
     }
 
     @Test
@@ -107,4 +491,204 @@ class AdminControllerIntegrationTest extends BaseIntegrationTest {
                 .then()
                 .statusCode(400);
     }
-}
\ No newline at end of file
+
+    @Test
+    void testGetImportJob_NotFound() {
+        given()
+                .header("Authorization", adminAuth)
+                .when()
+                .get(getApiUrl("/admin/loading/jobs/999999"))
+                .then()
+                .statusCode(404)
+                .body("success", equalTo(false))
+                .body("message", equalTo("Import job not found"));
+    }
+
+    @Test
+    void testFailExpiredImportJobs_KeepsJobsWithLiveLease() {
+        Long abandoned = testDataHelper.createImportJob("RUNNING", 600);
+        Long live = testDataHelper.createImportJob("RUNNING", 5);
+
+        testDataHelper.failExpiredImportJobs();
+
+        given()
+                .header("Authorization", adminAuth)
+                .when()
+                .get(getApiUrl("/admin/loading/jobs/" + abandoned))
+                .then()
+                .statusCode(200)
+                .body("data.status", equalTo("FAILED"));
+        given()
+                .header("Authorization", adminAuth)
+                .when()
+                .get(getApiUrl("/admin/loading/jobs/" + live))
+                .then()
+                .statusCode(200)
+                .body("data.status", equalTo("RUNNING"));
+    }
+
+    @Test
+    void testPurgeExpiredPasswordResetTokens_KeepsValidTokens() {
+        for (int i = 0; i < 3; i++) {
+            testDataHelper.createExpiredPasswordResetToken("testadmin@gmail.com");
+        }
+        testDataHelper.createPasswordResetToken("testadmin@gmail.com");
+
+        given()
+                .header("Authorization", adminAuth)
+                .when()
+                .get(getApiUrl("/admin/password-reset-tokens"))
+                .then()
+                .statusCode(200)
+                .body("data.outstanding", equalTo(4))
+                .body("data.expired", equalTo(3));
+
+        testDataHelper.purgeExpiredPasswordResetTokens();
+
+        given()
+                .header("Authorization", adminAuth)
+                .when()
+                .get(getApiUrl("/admin/password-reset-tokens"))
+                .then()
+                .statusCode(200)
+                .body("message", equalTo("Password reset token statistics retrieved successfully"))
+                .body("data.outstanding", equalTo(1))
+                .body("data.expired", equalTo(0))
+                .body("data.purged", greaterThanOrEqualTo(3));
+    }
+
+    @Test
+    void testPrometheus_ExposesApplicationMetrics() {
+        long jobId = given()
+                .header("Authorization", adminAuth)
+                .queryParam("path", validCsvPath)
+                .when()
+                .post(getApiUrl("/admin/loading/products"))
+                .then()
+                .statusCode(202)
+                .extract().jsonPath().getLong("data.id");
+        awaitJob(jobId).body("data.status", equalTo("COMPLETED"));
+
+        given()
+                .header("Authorization", adminAuth)
+                .when()
+                .get(baseUrl + "/actuator/prometheus")
+                .then()
+                .statusCode(200)
+                .body(containsString("http_server_requests_seconds_bucket{"))
+                .body(containsString("uri=\"/api/admin/loading/jobs/{id}\""))
+                .body(containsString("statement=\"UserMapper.findByUsername\""))
+                .body(containsString("mybatis_statement_seconds_bucket{"))
+                .body(containsString("hikaricp_connections_pending{"))
+                .body(containsString("pool=\"marketplace\""))
+                .body(containsString("auth_password_verify_seconds_count"))
+                .body(containsString("product_import_rows_total"))
+                .body(containsString("product_import_bytes_total"));
+    }
+
+    @Test
+    void testPrometheus_RequiresAdmin() {
+        given()
+                .when()
+                .get(baseUrl + "/actuator/prometheus")
+                .then()
+                .statusCode(401);
+
+        given()
+                .when()
+                .get(baseUrl + "/actuator/health")
+                .then()
+                .statusCode(200)
+                .body("status", equalTo("UP"));
+    }
+
+    @Test
+    void testCancelImportJob_Finished_Failure() {
+        long jobId = given()
+                .header("Authorization", adminAuth)
+                .queryParam("path", validCsvPath)
+                .when()
+                .post(getApiUrl("/admin/loading/products"))
+                .then()
+                .statusCode(202)
+                .extract().jsonPath().getLong("data.id");
+        awaitJob(jobId);
+
+        given()
+                .header("Authorization", adminAuth)
+                .when()
+                .post(getApiUrl("/admin/loading/jobs/" + jobId + "/cancel"))
+                .then()
+                .statusCode(400)
+                .body("message", equalTo("Import job is not running"));
+    }
+
+    @Test
+    void testCancelImportJob_DuringMerge_RolledBack() throws Exception {
+        long jobId;
+        try (Connection lock = testDataHelper.lockProductTable()) {
+            jobId = given()
+                    .header("Authorization", adminAuth)
+                    .queryParam("path", validCsvPath)
+                    .queryParam("parallelism", 2)
+                    .when()
+                    .post(getApiUrl("/admin/loading/products"))
+                    .then()
+                    .statusCode(202)
+                    .extract().jsonPath().getLong("data.id");
+
+            // The rows are staged; the merge into product now waits on the lock until it is cancelled.
+            for (int attempt = 0; attempt < 100 && !testDataHelper.isProductInsertWaitingOnLock(); attempt++) {
+                Thread.sleep(100);
+            }
+            assertTrue(testDataHelper.isProductInsertWaitingOnLock());
+
+            given()
+                    .header("Authorization", adminAuth)
+                    .when()
+                    .post(getApiUrl("/admin/loading/jobs/" + jobId + "/cancel"))
+                    .then()
+                    .statusCode(202);
+
+            awaitJob(jobId)
+                    .body("data.status", equalTo("CANCELLED"))
+                    .body("data.rowsProcessed", equalTo(0));
+        }
+        assertEquals(0, testDataHelper.countProducts());
+        assertSuggestions("TestProduct", empty());
+    }
+
+    private void assertSuggestions(String prefix, Matcher<?> names) {
+        testDataHelper.createTestUser(2, "testuser");
+        given()
+                .header("Authorization", createBasicAuthHeader("testuser", "123456"))
+                .queryParam("prefix", prefix)
+                .when()
+                .get(getApiUrl("/products/suggest"))
+                .then()
+                .statusCode(200)
+                .body("data", names);
+    }
+
+    private ValidatableResponse awaitJob(long jobId) {
+        for (int attempt = 0; attempt < 100; attempt++) {
+            ValidatableResponse response = given()
+                    .header("Authorization", adminAuth)
+                    .when()
+                    .get(getApiUrl("/admin/loading/jobs/" + jobId))
+                    .then()
+                    .statusCode(200);
+            String status = response.extract().jsonPath().getString("data.status");
+            if (!"PENDING".equals(status) && !"RUNNING".equals(status)) {
+                return response;
+            }
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        throw new AssertionError("Import job " + jobId + " did not finish in time");
+    }
+}
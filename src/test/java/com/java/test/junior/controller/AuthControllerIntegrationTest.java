@@ -1,6 +1,8 @@
 package com.java.test.junior.controller;
 
 import com.java.test.junior.BaseIntegrationTest;
+import com.java.test.junior.model.LoginDTO;
+import com.java.test.junior.model.RefreshTokenDTO;
 import com.java.test.junior.model.UserDTO;
 import com.java.test.junior.util.TestDataHelper;
 import io.restassured.RestAssured;
@@ -14,6 +16,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import static io.restassured.RestAssured.given;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.notNullValue;
 
 @TestMethodOrder(MethodOrderer.OrderAnnotation.class)
 class AuthControllerIntegrationTest extends BaseIntegrationTest {
@@ -115,4 +118,127 @@ class AuthControllerIntegrationTest extends BaseIntegrationTest {
                 .body("success", equalTo(false))
                 .body("message", containsString("Validation failed"));
     }
-}
\ No newline at end of file
+
+    @Test
+    void testLogin_Success_TokenGrantsAccess() {
+        testDataHelper.createTestUser(2, "testuser");
+
+        String accessToken = given()
+                .contentType(ContentType.JSON)
+                .body(new LoginDTO("testuser", "123456"))
+                .when()
+                .post(getApiUrl("/auth/login"))
+                .then()
+                .statusCode(200)
+                .body("success", equalTo(true))
+                .body("data.accessToken", notNullValue())
+                .body("data.refreshToken", notNullValue())
+                .body("data.tokenType", equalTo("Bearer"))
+                .extract().path("data.accessToken");
+
+        given()
+                .header("Authorization", "Bearer " + accessToken)
+                .when()
+                .get(getApiUrl("/products"))
+                .then()
+                .statusCode(200);
+    }
+
+    @Test
+    void testLogin_InvalidCredentials() {
+        testDataHelper.createTestUser(2, "testuser");
+
+        given()
+                .contentType(ContentType.JSON)
+                .body(new LoginDTO("testuser", "wrongpass"))
+                .when()
+                .post(getApiUrl("/auth/login"))
+                .then()
+                .statusCode(401)
+                .body("success", equalTo(false));
+    }
+
+    @Test
+    void testRefresh_Success() {
+        testDataHelper.createTestUser(2, "testuser");
+
+        String refreshToken = given()
+                .contentType(ContentType.JSON)
+                .body(new LoginDTO("testuser", "123456"))
+                .when()
+                .post(getApiUrl("/auth/login"))
+                .then()
+                .statusCode(200)
+                .extract().path("data.refreshToken");
+
+        given()
+                .contentType(ContentType.JSON)
+                .body(new RefreshTokenDTO(refreshToken))
+                .when()
+                .post(getApiUrl("/auth/refresh"))
+                .then()
+                .statusCode(200)
+                .body("data.accessToken", notNullValue());
+    }
+
+    @Test
+    void testRefresh_ReusedToken_RevokesSession() {
+        testDataHelper.createTestUser(2, "testuser");
+
+        String refreshToken = given()
+                .contentType(ContentType.JSON)
+                .body(new LoginDTO("testuser", "123456"))
+                .when()
+                .post(getApiUrl("/auth/login"))
+                .then()
+                .statusCode(200)
+                .extract().path("data.refreshToken");
+
+        String rotatedToken = given()
+                .contentType(ContentType.JSON)
+                .body(new RefreshTokenDTO(refreshToken))
+                .when()
+                .post(getApiUrl("/auth/refresh"))
+                .then()
+                .statusCode(200)
+                .extract().path("data.refreshToken");
+
+        given()
+                .contentType(ContentType.JSON)
+                .body(new RefreshTokenDTO(refreshToken))
+                .when()
+                .post(getApiUrl("/auth/refresh"))
+                .then()
+                .statusCode(401)
+                .body("success", equalTo(false));
+
+        given()
+                .contentType(ContentType.JSON)
+                .body(new RefreshTokenDTO(rotatedToken))
+                .when()
+                .post(getApiUrl("/auth/refresh"))
+                .then()
+                .statusCode(401);
+    }
+
+    @Test
+    void testRefresh_MissingToken_BadRequest() {
+        given()
+                .contentType(ContentType.JSON)
+                .body("{}")
+                .when()
+                .post(getApiUrl("/auth/refresh"))
+                .then()
+                .statusCode(400);
+    }
+
+    @Test
+    void testBearerToken_Invalid_Unauthorized() {
+        given()
+                .header("Authorization", "Bearer not-a-token")
+                .when()
+                .get(getApiUrl("/products"))
+                .then()
+                .statusCode(401);
+    }
+}
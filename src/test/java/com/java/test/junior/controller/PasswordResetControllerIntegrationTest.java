@@ -2,20 +2,43 @@ package com.java.test.junior.controller;
 
 import com.java.test.junior.BaseIntegrationTest;
 import com.java.test.junior.util.TestDataHelper;
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.GreenMailUtil;
+import com.icegreen.greenmail.util.ServerSetupTest;
 import io.restassured.RestAssured;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.MethodOrderer;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestMethodOrder;
+import org.junit.jupiter.api.extension.RegisterExtension;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+
+import javax.mail.internet.MimeMessage;
 
 import static io.restassured.RestAssured.given;
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 
 @TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@TestPropertySource(properties = {
+        "spring.mail.host=localhost",
+        "spring.mail.port=3025",
+        "spring.mail.username=",
+        "spring.mail.password=",
+        "spring.mail.properties.mail.smtp.auth=false",
+        "spring.mail.properties.mail.smtp.starttls.enable=false",
+        "email.outbox.poll-interval-ms=100",
+        "email.outbox.retry-base-seconds=1"
+})
 class PasswordResetControllerIntegrationTest extends BaseIntegrationTest {
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
     @Autowired
     private TestDataHelper testDataHelper;
     String validResetToken;
@@ -41,6 +64,128 @@ class PasswordResetControllerIntegrationTest extends BaseIntegrationTest {
                 .body("message", containsString("User not found"));
     }
 
+    @Test
+    void testForgotPassword_EmailDeliveredFromOutbox() throws Exception {
+        given()
+                .queryParam("email", "testuser1@gmail.com")
+                .when()
+                .post(getApiUrl("/forgot-password"))
+                .then()
+                .statusCode(200)
+                .body("success", equalTo(true));
+
+        assertTrue(greenMail.waitForIncomingEmail(5000, 1));
+        MimeMessage message = greenMail.getReceivedMessages()[0];
+        assertEquals("Password Reset Request", message.getSubject());
+        assertEquals("testuser1@gmail.com", message.getAllRecipients()[0].toString());
+        String body = GreenMailUtil.getBody(message).trim();
+        String token = body.substring(body.lastIndexOf(' ') + 1);
+
+        // The reset token must not stay readable in the outbox once the email is out.
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!testDataHelper.isEmailSentAndRedacted("testuser1@gmail.com") && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertTrue(testDataHelper.isEmailSentAndRedacted("testuser1@gmail.com"));
+
+        given()
+                .queryParam("token", token)
+                .queryParam("newPassword", "newStrongPass!")
+                .when()
+                .post(getApiUrl("/reset-password"))
+                .then()
+                .statusCode(200)
+                .body("message", equalTo("Password reset successfully"));
+    }
+
+    @Test
+    void testForgotPassword_RetriedWhileSmtpIsDown() throws Exception {
+        greenMail.stop();
+        given()
+                .queryParam("email", "testuser1@gmail.com")
+                .when()
+                .post(getApiUrl("/forgot-password"))
+                .then()
+                .statusCode(200);
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (testDataHelper.findEmailAttempts("testuser1@gmail.com") < 1 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertTrue(testDataHelper.findEmailAttempts("testuser1@gmail.com") >= 1);
+
+        greenMail.start();
+        assertTrue(greenMail.waitForIncomingEmail(10000, 1));
+    }
+
+    @Test
+    void testPurgeFinishedEmails_KeepsRecentAndPending() {
+        testDataHelper.createOutboxEmail("old-sent@example.com", "SENT", 200);
+        testDataHelper.createOutboxEmail("old-failed@example.com", "FAILED", 200);
+        testDataHelper.createOutboxEmail("recent-sent@example.com", "SENT", 1);
+        testDataHelper.createOutboxEmail("old-pending@example.com", "PENDING", 200);
+
+        testDataHelper.purgeFinishedEmails();
+
+        assertEquals(0, testDataHelper.countOutboxEmails("old-sent@example.com"));
+        assertEquals(0, testDataHelper.countOutboxEmails("old-failed@example.com"));
+        assertEquals(1, testDataHelper.countOutboxEmails("recent-sent@example.com"));
+        assertEquals(1, testDataHelper.countOutboxEmails("old-pending@example.com"));
+    }
+
+    @Test
+    void testEmailOutboxStats_Admin() {
+        testDataHelper.createAdminUser();
+
+        given()
+                .header("Authorization", createBasicAuthHeader("admin", "123456"))
+                .when()
+                .get(getApiUrl("/admin/email/outbox"))
+                .then()
+                .statusCode(200)
+                .body("message", equalTo("Email outbox statistics retrieved successfully"))
+                .body("data.pending", equalTo(0))
+                .body("data.failed", equalTo(0));
+    }
+
+    @Test
+    void testForgotPassword_RateLimitedPerEmail() {
+        for (int i = 0; i < 3; i++) {
+            given()
+                    .queryParam("email", "nonexistent@example.com")
+                    .when()
+                    .post(getApiUrl("/forgot-password"))
+                    .then()
+                    .statusCode(404);
+        }
+
+        given()
+                .queryParam("email", "NonExistent@example.com")
+                .when()
+                .post(getApiUrl("/forgot-password"))
+                .then()
+                .statusCode(429)
+                .header("Retry-After", notNullValue())
+                .body("success", equalTo(false))
+                .body("message", equalTo("Too many requests, try again later"));
+
+        given()
+                .queryParam("email", "other@example.com")
+                .when()
+                .post(getApiUrl("/forgot-password"))
+                .then()
+                .statusCode(404);
+
+        testDataHelper.createAdminUser();
+        given()
+                .header("Authorization", createBasicAuthHeader("admin", "123456"))
+                .when()
+                .get(getApiUrl("/admin/rate-limit"))
+                .then()
+                .statusCode(200)
+                .body("data.rejections.'forgot-password.email'", equalTo(1));
+    }
+
     @Test
     void testResetPassword_ValidToken_Success() {
         String newPassword = "newStrongPass!";
@@ -56,6 +201,31 @@ class PasswordResetControllerIntegrationTest extends BaseIntegrationTest {
                 .body("message", equalTo("Password reset successfully"));
     }
 
+    @Test
+    void testResetPassword_OldCredentialsRejectedAfterReset() {
+        given()
+                .header("Authorization", userAuth)
+                .when()
+                .get(getApiUrl("/products"))
+                .then()
+                .statusCode(200);
+
+        given()
+                .queryParam("token", validResetToken)
+                .queryParam("newPassword", "newStrongPass!")
+                .when()
+                .post(getApiUrl("/reset-password"))
+                .then()
+                .statusCode(200);
+
+        given()
+                .header("Authorization", userAuth)
+                .when()
+                .get(getApiUrl("/products"))
+                .then()
+                .statusCode(401);
+    }
+
     @Test
     void testResetPassword_InvalidToken_NotFound() {
         given()
@@ -3,16 +3,22 @@ package com.java.test.junior.controller;
 import com.java.test.junior.BaseIntegrationTest;
 import com.java.test.junior.model.Product;
 import com.java.test.junior.model.ProductDTO;
+import com.java.test.junior.model.ProductUpdateDTO;
 import com.java.test.junior.util.TestDataHelper;
 import io.restassured.RestAssured;
 import io.restassured.http.ContentType;
+import io.restassured.path.json.JsonPath;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestMethodOrder;
 import org.junit.jupiter.api.MethodOrderer;
 import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.List;
+
 import static io.restassured.RestAssured.given;
 import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 
 @TestMethodOrder(MethodOrderer.OrderAnnotation.class)
 class ProductControllerIntegrationTest extends BaseIntegrationTest {
@@ -126,6 +132,215 @@ class ProductControllerIntegrationTest extends BaseIntegrationTest {
                 .body("data.price", equalTo(updatedProduct.getPrice().floatValue()));
     }
 
+    @Test
+    void testFindProduct_AfterUpdate_ReturnsFreshData() {
+        Product originalProduct = testDataHelper.createTestProduct("Cached", 20.0, "Test", "testuser");
+        Long productId = originalProduct.getId();
+
+        given()
+                .header("Authorization", userAuth)
+                .when()
+                .get(getApiUrl("/products/" + productId))
+                .then()
+                .statusCode(200)
+                .body("data.name", equalTo("Cached"));
+
+        given()
+                .contentType(ContentType.JSON)
+                .header("Authorization", userAuth)
+                .body(new ProductDTO("Recached", 25.0, "Test"))
+                .when()
+                .put(getApiUrl("/products/" + productId))
+                .then()
+                .statusCode(200);
+
+        given()
+                .header("Authorization", userAuth)
+                .when()
+                .get(getApiUrl("/products/" + productId))
+                .then()
+                .statusCode(200)
+                .body("data.name", equalTo("Recached"))
+                .body("data.price", equalTo(25.0f));
+
+        given()
+                .header("Authorization", userAuth)
+                .when()
+                .get(getApiUrl("/products/name/Cached"))
+                .then()
+                .statusCode(404);
+    }
+
+    @Test
+    void testFindProduct_IfNoneMatch_NotModified() {
+        Product product = testDataHelper.createTestProduct("Conditional", 20.0, "Test", "testuser");
+
+        String etag = given()
+                .header("Authorization", userAuth)
+                .when()
+                .get(getApiUrl("/products/" + product.getId()))
+                .then()
+                .statusCode(200)
+                .header("ETag", notNullValue())
+                .header("Last-Modified", notNullValue())
+                .extract().header("ETag");
+
+        given()
+                .header("Authorization", userAuth)
+                .header("If-None-Match", etag)
+                .when()
+                .get(getApiUrl("/products/" + product.getId()))
+                .then()
+                .statusCode(304)
+                .header("ETag", equalTo(etag));
+
+        given()
+                .contentType(ContentType.JSON)
+                .header("Authorization", userAuth)
+                .body(new ProductDTO("Conditional", 30.0, "Changed"))
+                .when()
+                .put(getApiUrl("/products/" + product.getId()))
+                .then()
+                .statusCode(200);
+
+        given()
+                .header("Authorization", userAuth)
+                .header("If-None-Match", etag)
+                .when()
+                .get(getApiUrl("/products/" + product.getId()))
+                .then()
+                .statusCode(200)
+                .header("ETag", not(equalTo(etag)))
+                .body("data.price", equalTo(30.0f));
+    }
+
+    @Test
+    void testFindProduct_IfModifiedSince_ModifiedByLikes() {
+        Product product = testDataHelper.createTestProduct("Liked", 20.0, "Test", "testuser");
+        // Last-Modified has second precision, so the fold must land in a later second than the edit.
+        testDataHelper.backdateProduct(product.getId(), 60);
+
+        String lastModified = given()
+                .header("Authorization", userAuth)
+                .when()
+                .get(getApiUrl("/products/" + product.getId()))
+                .then()
+                .statusCode(200)
+                .extract().header("Last-Modified");
+
+        given()
+                .header("Authorization", userAuth)
+                .header("If-Modified-Since", lastModified)
+                .when()
+                .get(getApiUrl("/products/" + product.getId()))
+                .then()
+                .statusCode(304);
+
+        given()
+                .header("Authorization", userAuth)
+                .when()
+                .post(getApiUrl("/products/like/" + product.getId()))
+                .then()
+                .statusCode(200);
+        testDataHelper.foldLikeCounts();
+
+        given()
+                .header("Authorization", userAuth)
+                .header("If-Modified-Since", lastModified)
+                .when()
+                .get(getApiUrl("/products/" + product.getId()))
+                .then()
+                .statusCode(200)
+                .header("Last-Modified", not(equalTo(lastModified)))
+                .body("data.likeCount", equalTo(1))
+                .body("data", not(hasKey("likeCountUpdatedAt")));
+    }
+
+    @Test
+    void testFindAll_IfNoneMatch_NotModifiedUntilWrite() {
+        testDataHelper.createTestProduct("Listed", 20.0, "Test", "testuser");
+
+        String etag = given()
+                .header("Authorization", userAuth)
+                .when()
+                .get(getApiUrl("/products"))
+                .then()
+                .statusCode(200)
+                .extract().header("ETag");
+
+        given()
+                .header("Authorization", userAuth)
+                .header("If-None-Match", etag)
+                .when()
+                .get(getApiUrl("/products"))
+                .then()
+                .statusCode(304);
+
+        testDataHelper.createTestProduct("ListedLater", 20.0, "Test", "testuser");
+
+        given()
+                .header("Authorization", userAuth)
+                .header("If-None-Match", etag)
+                .when()
+                .get(getApiUrl("/products"))
+                .then()
+                .statusCode(200)
+                .body("data.size()", equalTo(2));
+    }
+
+    @Test
+    void testFindAll_IfNoneMatch_TracksOnlyRowsOnThePage() {
+        Product listed = testDataHelper.createTestProduct("OnPage", 20.0, "Test", "testuser");
+        Product unlisted = testDataHelper.createTestProduct("OffPage", 20.0, "Test", "testuser");
+
+        String etag = given()
+                .header("Authorization", userAuth)
+                .queryParam("pageSize", 1)
+                .when()
+                .get(getApiUrl("/products"))
+                .then()
+                .statusCode(200)
+                .header("ETag", startsWith("W/"))
+                .extract().header("ETag");
+
+        given()
+                .contentType(ContentType.JSON)
+                .header("Authorization", userAuth)
+                .body(new ProductDTO("OffPageRenamed", 25.0, "Test"))
+                .when()
+                .put(getApiUrl("/products/" + unlisted.getId()))
+                .then()
+                .statusCode(200);
+
+        given()
+                .header("Authorization", userAuth)
+                .header("If-None-Match", etag)
+                .queryParam("pageSize", 1)
+                .when()
+                .get(getApiUrl("/products"))
+                .then()
+                .statusCode(304);
+
+        given()
+                .contentType(ContentType.JSON)
+                .header("Authorization", userAuth)
+                .body(new ProductDTO("OnPageRenamed", 25.0, "Test"))
+                .when()
+                .put(getApiUrl("/products/" + listed.getId()))
+                .then()
+                .statusCode(200);
+
+        given()
+                .header("Authorization", userAuth)
+                .header("If-None-Match", etag)
+                .queryParam("pageSize", 1)
+                .when()
+                .get(getApiUrl("/products"))
+                .then()
+                .statusCode(200)
+                .body("data[0].name", equalTo("OnPageRenamed"));
+    }
+
     @Test
     void testUpdateProduct_Forbidden() {
         Product originalProduct = testDataHelper.createTestProduct("Test", 20.0, "Test", "testuser");
@@ -219,6 +434,41 @@ class ProductControllerIntegrationTest extends BaseIntegrationTest {
                 .body("pageSize", equalTo(5));
     }
 
+    @Test
+    void testFindAll_ExactCount() {
+        testDataHelper.createTestProduct("Test1", 10.0, "Test1", "testuser");
+        testDataHelper.createTestProduct("Test2", 20.0, "Test2", "testuser");
+        testDataHelper.createTestProduct("Test3", 30.0, "Test3", "testuser");
+
+        given()
+                .queryParam("page", 1)
+                .queryParam("pageSize", 2)
+                .queryParam("count", "exact")
+                .header("Authorization", userAuth)
+                .when()
+                .get(getApiUrl("/products"))
+                .then()
+                .statusCode(200)
+                .body("totalCount", equalTo(3))
+                .body("totalPages", equalTo(2));
+    }
+
+    @Test
+    void testFindAll_ExactCount_StaleAfterWriteUntilRefreshed() throws InterruptedException {
+        testDataHelper.createTestProduct("Test1", 10.0, "Test1", "testuser");
+        assertEquals(1, exactCount());
+
+        testDataHelper.createTestProduct("Test2", 20.0, "Test2", "testuser");
+        // The write marks the cached count stale: it is still served while a refresh runs behind it.
+        assertEquals(1, exactCount());
+        long count = exactCount();
+        for (int attempt = 0; attempt < 50 && count != 2; attempt++) {
+            Thread.sleep(100);
+            count = exactCount();
+        }
+        assertEquals(2, count);
+    }
+
     @Test
     void testFindAll_InvalidPagination() {
         given()
@@ -231,6 +481,51 @@ class ProductControllerIntegrationTest extends BaseIntegrationTest {
                 .statusCode(400);
     }
 
+    @Test
+    void testFindAll_CursorPagination() {
+        testDataHelper.createTestProduct("Test1", 10.0, "Test1", "testuser");
+        testDataHelper.createTestProduct("Test2", 20.0, "Test2", "testuser");
+        testDataHelper.createTestProduct("Test3", 30.0, "Test3", "testuser");
+
+        String nextCursor = given()
+                .queryParam("cursor", "")
+                .queryParam("sort", "price")
+                .queryParam("pageSize", 2)
+                .header("Authorization", userAuth)
+                .when()
+                .get(getApiUrl("/products"))
+                .then()
+                .statusCode(200)
+                .body("data", hasSize(2))
+                .body("data[0].name", equalTo("Test1"))
+                .body("nextCursor", notNullValue())
+                .extract().path("nextCursor");
+
+        given()
+                .queryParam("cursor", nextCursor)
+                .queryParam("sort", "price")
+                .queryParam("pageSize", 2)
+                .header("Authorization", userAuth)
+                .when()
+                .get(getApiUrl("/products"))
+                .then()
+                .statusCode(200)
+                .body("data", hasSize(1))
+                .body("data[0].name", equalTo("Test3"))
+                .body("nextCursor", nullValue());
+    }
+
+    @Test
+    void testFindAll_InvalidCursor() {
+        given()
+                .queryParam("cursor", "not-a-cursor")
+                .header("Authorization", userAuth)
+                .when()
+                .get(getApiUrl("/products"))
+                .then()
+                .statusCode(400);
+    }
+
     @Test
     void testFindByName_Success() {
         String uniqueName = "UniqueProduct_" + System.currentTimeMillis();
@@ -259,6 +554,243 @@ class ProductControllerIntegrationTest extends BaseIntegrationTest {
                 .body("message", containsString("Product not found"));
     }
 
+    @Test
+    void testSearch_FullTextMatchOnDescription() {
+        testDataHelper.createTestProduct("Laptop", 1000.0, "Fast portable computer", "testuser");
+        testDataHelper.createTestProduct("Chair", 50.0, "Wooden chair", "testuser");
+
+        given()
+                .queryParam("q", "computer")
+                .header("Authorization", userAuth)
+                .when()
+                .get(getApiUrl("/products/search"))
+                .then()
+                .statusCode(200)
+                .body("data", hasSize(1))
+                .body("data[0].name", equalTo("Laptop"));
+    }
+
+    @Test
+    void testSearch_TypoTolerantNameMatch() {
+        testDataHelper.createTestProduct("Laptop", 1000.0, "Fast portable computer", "testuser");
+
+        given()
+                .queryParam("q", "Laptp")
+                .header("Authorization", userAuth)
+                .when()
+                .get(getApiUrl("/products/search"))
+                .then()
+                .statusCode(200)
+                .body("data[0].name", equalTo("Laptop"));
+    }
+
+    @Test
+    void testSuggest_ReturnsNamesByPrefix() {
+        testDataHelper.createTestProduct("Laptop", 1000.0, "Test", "testuser");
+        testDataHelper.createTestProduct("Lamp", 30.0, "Test", "testuser");
+        testDataHelper.createTestProduct("Chair", 50.0, "Test", "testuser");
+
+        given()
+                .queryParam("prefix", "la")
+                .header("Authorization", userAuth)
+                .when()
+                .get(getApiUrl("/products/suggest"))
+                .then()
+                .statusCode(200)
+                .body("data", contains("Lamp", "Laptop"));
+    }
+
+    @Test
+    void testStreamAll_WritesOneJsonLinePerProduct() {
+        testDataHelper.createTestProduct("StreamFirst", 10.0, "Test", "testuser");
+        testDataHelper.createTestProduct("StreamSecond", 20.0, "Test", "testuser");
+
+        String body = given()
+                .header("Authorization", userAuth)
+                .when()
+                .get(getApiUrl("/products/stream"))
+                .then()
+                .statusCode(200)
+                .contentType("application/x-ndjson")
+                .extract().asString();
+
+        String[] lines = body.trim().split("\n");
+        assertEquals(2, lines.length);
+        assertEquals("StreamFirst", JsonPath.from(lines[0]).getString("name"));
+        assertEquals("StreamSecond", JsonPath.from(lines[1]).getString("name"));
+    }
+
+    @Test
+    void testBatchCreate_ReportsPerItemResults() {
+        testDataHelper.createTestProduct("Existing", 10.0, "Test", "testuser");
+        List<ProductDTO> batch = List.of(
+                new ProductDTO("BatchFirst", 1.0, "Test"),
+                new ProductDTO("Existing", 2.0, "Test"),
+                new ProductDTO("BatchSecond", 3.0, "Test"),
+                new ProductDTO("BatchFirst", 4.0, "Test"));
+
+        given()
+                .contentType(ContentType.JSON)
+                .header("Authorization", userAuth)
+                .body(batch)
+                .when()
+                .post(getApiUrl("/products/batch"))
+                .then()
+                .statusCode(200)
+                .body("success", equalTo(true))
+                .body("data.status", contains("CREATED", "CONFLICT", "CREATED", "CONFLICT"))
+                .body("data[0].id", notNullValue())
+                .body("data[1].id", nullValue());
+    }
+
+    @Test
+    void testBatchUpdate_ReportsPerItemResults() {
+        Product own = testDataHelper.createTestProduct("Own", 10.0, "Test", "testuser");
+        testDataHelper.createTestUser(3, "otheruser");
+        Product foreign = testDataHelper.createTestProduct("Foreign", 10.0, "Test", "otheruser");
+        List<ProductUpdateDTO> batch = List.of(
+                new ProductUpdateDTO(own.getId(), "OwnRenamed", 15.0, "Updated"),
+                new ProductUpdateDTO(foreign.getId(), "Stolen", 1.0, "Updated"),
+                new ProductUpdateDTO(999999L, "Missing", 1.0, "Updated"));
+        // Caches the product, so the batch has to evict it.
+        given()
+                .header("Authorization", userAuth)
+                .when()
+                .get(getApiUrl("/products/" + own.getId()))
+                .then()
+                .statusCode(200)
+                .body("data.name", equalTo("Own"));
+
+        given()
+                .contentType(ContentType.JSON)
+                .header("Authorization", userAuth)
+                .body(batch)
+                .when()
+                .put(getApiUrl("/products/batch"))
+                .then()
+                .statusCode(200)
+                .body("data.status", contains("UPDATED", "FORBIDDEN", "NOT_FOUND"));
+
+        given()
+                .header("Authorization", userAuth)
+                .when()
+                .get(getApiUrl("/products/" + own.getId()))
+                .then()
+                .statusCode(200)
+                .body("data.name", equalTo("OwnRenamed"))
+                .body("data.price", equalTo(15.0f));
+
+        given()
+                .queryParam("prefix", "own")
+                .header("Authorization", userAuth)
+                .when()
+                .get(getApiUrl("/products/suggest"))
+                .then()
+                .statusCode(200)
+                .body("data", contains("OwnRenamed"));
+    }
+
+    @Test
+    void testBatchUpdate_RenameOntoExistingName_ConflictOnlyForThatItem() {
+        Product first = testDataHelper.createTestProduct("RenameFirst", 10.0, "Test", "testuser");
+        Product second = testDataHelper.createTestProduct("RenameSecond", 10.0, "Test", "testuser");
+        testDataHelper.createTestUser(3, "otheruser");
+        testDataHelper.createTestProduct("Taken", 10.0, "Test", "otheruser");
+        List<ProductUpdateDTO> batch = List.of(
+                new ProductUpdateDTO(first.getId(), "Taken", 15.0, "Updated"),
+                new ProductUpdateDTO(second.getId(), "RenameSecondNew", 15.0, "Updated"));
+
+        given()
+                .contentType(ContentType.JSON)
+                .header("Authorization", userAuth)
+                .body(batch)
+                .when()
+                .put(getApiUrl("/products/batch"))
+                .then()
+                .statusCode(200)
+                .body("data.status", contains("CONFLICT", "UPDATED"))
+                .body("data[0].message", equalTo("Product already exists with name: Taken"));
+
+        given()
+                .header("Authorization", userAuth)
+                .when()
+                .get(getApiUrl("/products/" + first.getId()))
+                .then()
+                .statusCode(200)
+                .body("data.name", equalTo("RenameFirst"));
+    }
+
+    @Test
+    void testBatchUpdate_SwapNamesWithinBatch_Success() {
+        Product first = testDataHelper.createTestProduct("SwapFirst", 10.0, "Test", "testuser");
+        Product second = testDataHelper.createTestProduct("SwapSecond", 20.0, "Test", "testuser");
+        List<ProductUpdateDTO> batch = List.of(
+                new ProductUpdateDTO(first.getId(), "SwapSecond", 10.0, "Test"),
+                new ProductUpdateDTO(second.getId(), "SwapFirst", 20.0, "Test"));
+
+        given()
+                .contentType(ContentType.JSON)
+                .header("Authorization", userAuth)
+                .body(batch)
+                .when()
+                .put(getApiUrl("/products/batch"))
+                .then()
+                .statusCode(200)
+                .body("data.status", contains("UPDATED", "UPDATED"));
+
+        given()
+                .header("Authorization", userAuth)
+                .when()
+                .get(getApiUrl("/products/" + first.getId()))
+                .then()
+                .statusCode(200)
+                .body("data.name", equalTo("SwapSecond"));
+
+        given()
+                .queryParam("prefix", "swap")
+                .header("Authorization", userAuth)
+                .when()
+                .get(getApiUrl("/products/suggest"))
+                .then()
+                .statusCode(200)
+                .body("data", containsInAnyOrder("SwapFirst", "SwapSecond"));
+    }
+
+    @Test
+    void testBatchDelete_ReportsPerItemResults() {
+        Product first = testDataHelper.createTestProduct("DeleteFirst", 10.0, "Test", "testuser");
+        Product second = testDataHelper.createTestProduct("DeleteSecond", 10.0, "Test", "testuser");
+
+        given()
+                .contentType(ContentType.JSON)
+                .header("Authorization", userAuth)
+                .body(List.of(first.getId(), second.getId(), 999999L))
+                .when()
+                .post(getApiUrl("/products/batch/delete"))
+                .then()
+                .statusCode(200)
+                .body("data.status", contains("DELETED", "DELETED", "NOT_FOUND"));
+
+        given()
+                .header("Authorization", userAuth)
+                .when()
+                .get(getApiUrl("/products/" + first.getId()))
+                .then()
+                .statusCode(404);
+    }
+
+    @Test
+    void testBatchCreate_InvalidItem_ValidationError() {
+        given()
+                .contentType(ContentType.JSON)
+                .header("Authorization", userAuth)
+                .body(List.of(new ProductDTO("Valid", 1.0, "Test"), new ProductDTO("", -1.0, "Test")))
+                .when()
+                .post(getApiUrl("/products/batch"))
+                .then()
+                .statusCode(400);
+    }
+
     @Test
     void testLikeProduct_Success() {
         Product product = testDataHelper.createTestProduct("Test", 20.0, "Test", "testuser");
@@ -270,7 +802,9 @@ class ProductControllerIntegrationTest extends BaseIntegrationTest {
                 .post(getApiUrl("/products/like/" + productId))
                 .then()
                 .statusCode(200)
-                .body("success", equalTo(true));
+                .body("success", equalTo(true))
+                .body("message", equalTo("Product liked successfully"))
+                .body("data.liked", equalTo(true));
     }
 
     @Test
@@ -291,7 +825,116 @@ class ProductControllerIntegrationTest extends BaseIntegrationTest {
                 .post(getApiUrl("/products/like/" + productId))
                 .then()
                 .statusCode(200)
-                .body("success", equalTo(true));
+                .body("success", equalTo(true))
+                .body("message", equalTo("Product disliked successfully"))
+                .body("data.liked", equalTo(false));
+    }
+
+    @Test
+    void testTopLiked_RanksProductsByLikeCount() {
+        Product popular = testDataHelper.createTestProduct("Popular", 20.0, "Test", "testuser");
+        Product other = testDataHelper.createTestProduct("Other", 20.0, "Test", "testuser");
+        testDataHelper.createTestUser(3, "testuser2");
+        String secondAuth = createBasicAuthHeader("testuser2", "123456");
+
+        for (String auth : List.of(userAuth, secondAuth)) {
+            given()
+                    .header("Authorization", auth)
+                    .when()
+                    .post(getApiUrl("/products/like/" + popular.getId()))
+                    .then()
+                    .statusCode(200);
+        }
+        given()
+                .header("Authorization", userAuth)
+                .when()
+                .post(getApiUrl("/products/like/" + other.getId()))
+                .then()
+                .statusCode(200);
+        testDataHelper.foldLikeCounts();
+
+        given()
+                .header("Authorization", userAuth)
+                .queryParam("limit", 5)
+                .when()
+                .get(getApiUrl("/products/top-liked"))
+                .then()
+                .statusCode(200)
+                .body("message", equalTo("Top liked products retrieved successfully"))
+                .body("data.size()", equalTo(2))
+                .body("data[0].name", equalTo("Popular"))
+                .body("data[0].likeCount", equalTo(2))
+                .body("data[1].name", equalTo("Other"))
+                .body("data[1].likeCount", equalTo(1));
+
+        given()
+                .header("Authorization", userAuth)
+                .when()
+                .get(getApiUrl("/products/" + popular.getId()))
+                .then()
+                .statusCode(200)
+                .body("data.likeCount", equalTo(2));
+    }
+
+    @Test
+    void testTopLiked_InvalidLimit() {
+        given()
+                .header("Authorization", userAuth)
+                .queryParam("limit", 101)
+                .when()
+                .get(getApiUrl("/products/top-liked"))
+                .then()
+                .statusCode(400);
+    }
+
+    @Test
+    void testFindLike_ReflectsToggles() {
+        Product product = testDataHelper.createTestProduct("Test", 20.0, "Test", "testuser");
+
+        given()
+                .header("Authorization", userAuth)
+                .when()
+                .get(getApiUrl("/products/like/" + product.getId()))
+                .then()
+                .statusCode(200)
+                .body("message", equalTo("Like state retrieved successfully"))
+                .body("data.liked", equalTo(false));
+
+        given()
+                .header("Authorization", userAuth)
+                .when()
+                .post(getApiUrl("/products/like/" + product.getId()))
+                .then()
+                .statusCode(200);
+
+        given()
+                .header("Authorization", userAuth)
+                .when()
+                .get(getApiUrl("/products/like/" + product.getId()))
+                .then()
+                .statusCode(200)
+                .body("data.liked", equalTo(true));
+    }
+
+    @Test
+    void testFindLike_NotFound() {
+        given()
+                .header("Authorization", userAuth)
+                .when()
+                .get(getApiUrl("/products/like/99999"))
+                .then()
+                .statusCode(404);
+    }
+
+    @Test
+    void testLikeProduct_NotFound() {
+        given()
+                .header("Authorization", userAuth)
+                .when()
+                .post(getApiUrl("/products/like/999999"))
+                .then()
+                .statusCode(404)
+                .body("message", equalTo("Product not found with ID: 999999"));
     }
 
     @Test
@@ -305,4 +948,15 @@ class ProductControllerIntegrationTest extends BaseIntegrationTest {
                 .then()
                 .statusCode(401);
     }
-}
\ No newline at end of file
+
+    private long exactCount() {
+        return given()
+                .queryParam("count", "exact")
+                .header("Authorization", userAuth)
+                .when()
+                .get(getApiUrl("/products"))
+                .then()
+                .statusCode(200)
+                .extract().jsonPath().getLong("totalCount");
+    }
+}
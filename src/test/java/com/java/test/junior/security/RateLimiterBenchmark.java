@@ -0,0 +1,61 @@
+package com.java.test.junior.security;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the rate limit filter's work on requests it lets through: the rule lookup every request pays,
+ * and a token taken from an existing bucket, from one client and from many clients at once. The limits
+ * are high enough that nothing is rejected. Run the {@code main} method from the test classpath.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RateLimiterBenchmark {
+    private static final int CLIENTS = 10_000;
+
+    private RateLimiter rateLimiter;
+    private RateLimiter.Limit limit;
+    private String[] addresses;
+
+    @Setup
+    public void setUp() {
+        String unlimited = "1000000000/1";
+        rateLimiter = new RateLimiter(true, 16, 100_000, 600,
+                unlimited, unlimited, unlimited, unlimited, unlimited);
+        limit = rateLimiter.ruleFor("/api/forgot-password").getPerIp();
+        addresses = new String[CLIENTS];
+        for (int i = 0; i < CLIENTS; i++) {
+            addresses[i] = "10.0." + (i >> 8) + "." + (i & 0xff);
+            rateLimiter.tryAcquire(limit, addresses[i]);
+        }
+    }
+
+    @Benchmark
+    public RateLimiter.Rule unlimitedPath() {
+        return rateLimiter.ruleFor("/api/products");
+    }
+
+    @Benchmark
+    public long singleClient() {
+        return rateLimiter.tryAcquire(limit, addresses[0]);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public long manyClients() {
+        return rateLimiter.tryAcquire(limit, addresses[ThreadLocalRandom.current().nextInt(CLIENTS)]);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(RateLimiterBenchmark.class.getSimpleName()).build()).run();
+    }
+}
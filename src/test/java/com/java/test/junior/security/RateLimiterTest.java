@@ -0,0 +1,43 @@
+package com.java.test.junior.security;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RateLimiterTest {
+    private static final int MAX_KEYS = 64;
+
+    private RateLimiter rateLimiter;
+    private RateLimiter.Limit limit;
+
+    @BeforeEach
+    void setUp() {
+        rateLimiter = new RateLimiter(true, 1, MAX_KEYS, 600, "1/3600", "", "", "", "");
+        limit = rateLimiter.ruleFor("/api/auth/register").getPerIp();
+    }
+
+    @Test
+    void testTryAcquire_StripeFullOfActiveBuckets_AdmitsNewClient() {
+        for (int i = 0; i < MAX_KEYS; i++) {
+            assertEquals(0, rateLimiter.tryAcquire(limit, "spoofed-" + i));
+        }
+
+        // Every bucket is still empty, yet clients never seen before get one each.
+        assertEquals(0, rateLimiter.tryAcquire(limit, "newcomer"));
+        assertEquals(0, rateLimiter.tryAcquire(limit, "other-newcomer"));
+        assertTrue(rateLimiter.tryAcquire(limit, "newcomer") > 0);
+        assertTrue(rateLimiter.stats().getTrackedKeys() <= MAX_KEYS);
+    }
+
+    @Test
+    void testTryAcquire_StripeFull_EvictsLeastRecentlyUsed() {
+        assertEquals(0, rateLimiter.tryAcquire(limit, "regular"));
+        for (int i = 0; i < MAX_KEYS * 4; i++) {
+            rateLimiter.tryAcquire(limit, "spoofed-" + i);
+            // Still limited while it keeps coming back, however many keys pass through.
+            assertTrue(rateLimiter.tryAcquire(limit, "regular") > 0);
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.java.test.junior.service;
+
+import com.java.test.junior.util.CsvColumnAppendingReader;
+import com.java.test.junior.util.CsvRecordReader;
+import com.java.test.junior.util.ProductCsvValidator;
+import com.java.test.junior.util.ValidatingCsvRecordReader;
+import org.postgresql.copy.CopyManager;
+import org.postgresql.core.BaseConnection;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Throughput of a single-stream CSV import before and after the import stopped rewriting the source into
+ * a temporary file. {@code temp-file} reproduces the removed code path: read the source line by line,
+ * write each line with the appended columns to a temp file, then COPY from that file. {@code streaming}
+ * is the current path of {@link ProductImportServiceImpl} with one worker: records are validated and the
+ * columns appended on the fly while COPY pulls from the reader. {@code streaming-raw} is the same without
+ * validation, the path as it was when the temp file was removed, which separates the two costs.
+ *
+ * <p>All load into a copy of the product table without indexes, so the figures compare the client side
+ * of the import rather than index maintenance, which is the same for all. The input is generated on the
+ * first run. See {@code docs/csv-import-throughput.md} for the measured figures.</p>
+ *
+ * <pre>
+ * java -cp target/test-classes:target/classes:&lt;test classpath&gt; \
+ *     -Dbenchmark.jdbc.url=jdbc:postgresql://localhost:5432/bench \
+ *     -Dbenchmark.jdbc.user=... -Dbenchmark.jdbc.password=... \
+ *     com.java.test.junior.service.CsvImportThroughput /path/to/products-5g.csv 5000000000 [variant,...]
+ * </pre>
+ */
+public class CsvImportThroughput {
+    private static final String TABLE = "product_import_throughput";
+    private static final String COLUMNS = "name,price,description,user_id,created_at,updated_at";
+    private static final String SUFFIX = ",1,2024-01-01 00:00:00,2024-01-01 00:00:00";
+    private static final String COPY_SQL =
+            "COPY " + TABLE + "(" + COLUMNS + ") FROM STDIN WITH (FORMAT csv, HEADER true)";
+
+    public static void main(String[] args) throws Exception {
+        Path source = Paths.get(args[0]);
+        long size = args.length > 1 ? Long.parseLong(args[1]) : 5_000_000_000L;
+        String variantList = args.length > 2 ? args[2] : "temp-file,streaming-raw,streaming";
+        List<String> variants = Arrays.asList(variantList.split(","));
+        if (!Files.exists(source)) {
+            generate(source, size);
+        }
+        try (Connection connection = DriverManager.getConnection(
+                System.getProperty("benchmark.jdbc.url", "jdbc:postgresql://localhost:5432/postgres"),
+                System.getProperty("benchmark.jdbc.user", "postgres"),
+                System.getProperty("benchmark.jdbc.password", "postgres"))) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("CREATE TABLE IF NOT EXISTS " + TABLE + " (LIKE product INCLUDING DEFAULTS)");
+            }
+            CopyManager copyManager = new CopyManager(connection.unwrap(BaseConnection.class));
+            if (variants.contains("temp-file")) {
+                run("temp-file", source, connection, () -> tempFileImport(source, copyManager));
+            }
+            if (variants.contains("streaming-raw")) {
+                run("streaming-raw", source, connection, () -> streamingImport(source, copyManager, false));
+            }
+            if (variants.contains("streaming")) {
+                run("streaming", source, connection, () -> streamingImport(source, copyManager, true));
+            }
+        }
+    }
+
+    private static void run(String name, Path source, Connection connection, Import load) throws Exception {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("TRUNCATE " + TABLE);
+            statement.execute("CHECKPOINT");
+        }
+        long start = System.nanoTime();
+        long rows = load.run();
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%-13s %,d rows in %.1f s: %,.0f rows/s, %.1f MB/s%n",
+                name, rows, seconds, rows / seconds, Files.size(source) / 1e6 / seconds);
+    }
+
+    private static long tempFileImport(Path source, CopyManager copyManager) throws IOException, SQLException {
+        File tempFile = Files.createTempFile("processed-products", ".csv").toFile();
+        try {
+            try (BufferedReader reader = Files.newBufferedReader(source, StandardCharsets.UTF_8);
+                 BufferedWriter writer = new BufferedWriter(new FileWriter(tempFile))) {
+                reader.readLine();
+                writer.write(COLUMNS + "\n");
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    writer.write(line + SUFFIX + "\n");
+                }
+            }
+            try (Reader reader = new FileReader(tempFile)) {
+                return copyManager.copyIn(COPY_SQL, reader);
+            }
+        } finally {
+            Files.delete(tempFile.toPath());
+        }
+    }
+
+    private static long streamingImport(Path source, CopyManager copyManager, boolean validate)
+            throws IOException, SQLException {
+        Reader reader = Files.newBufferedReader(source, StandardCharsets.UTF_8);
+        try (CsvRecordReader records = !validate ? new CsvRecordReader(reader) : new ValidatingCsvRecordReader(
+                reader, ProductCsvValidator::validate, (recordNumber, reason, record) -> {
+                    throw new IllegalStateException("Generated record " + recordNumber + " rejected: " + reason);
+                })) {
+            records.readRecord();
+            return copyManager.copyIn(COPY_SQL, new CsvColumnAppendingReader(records, COLUMNS, SUFFIX, record -> { }),
+                    1 << 16);
+        }
+    }
+
+    /**
+     * Writes product records of about 120 bytes, a quoted name with a comma, a price and a description,
+     * until the file reaches {@code size} bytes.
+     */
+    private static void generate(Path target, long size) throws IOException {
+        Random random = new Random(42);
+        try (Writer writer = new BufferedWriter(
+                new OutputStreamWriter(Files.newOutputStream(target), StandardCharsets.UTF_8), 1 << 20)) {
+            writer.write("name,price,description\n");
+            long written = 0;
+            for (long i = 0; written < size; i++) {
+                String record = "\"Product " + i + ", model " + random.nextInt(1000) + "\","
+                        + random.nextInt(100_000) / 100.0 + ","
+                        + "Generated description for throughput measurement of product number " + i + "\n";
+                writer.write(record);
+                written += record.length();
+            }
+        }
+    }
+
+    private interface Import {
+        long run() throws Exception;
+    }
+}
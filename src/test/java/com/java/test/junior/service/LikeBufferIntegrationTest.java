@@ -0,0 +1,77 @@
+package com.java.test.junior.service;
+
+import com.java.test.junior.BaseIntegrationTest;
+import com.java.test.junior.exception.ServiceUnavailableException;
+import com.java.test.junior.mapper.UserProductMapper;
+import com.java.test.junior.model.Product;
+import com.java.test.junior.util.TestDataHelper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestPropertySource(properties = {
+        "product.likes.write-behind.enabled=true",
+        "product.likes.write-behind.max-pending=2",
+        "product.likes.write-behind.flush-interval-ms=3600000"
+})
+class LikeBufferIntegrationTest extends BaseIntegrationTest {
+    @Autowired
+    private TestDataHelper testDataHelper;
+    @Autowired
+    private UserProductMapper userProductMapper;
+    @Autowired
+    private LikeBuffer likeBuffer;
+
+    private Long productId;
+
+    @BeforeEach
+    void setUpTest() {
+        likeBuffer.flush();
+        testDataHelper.cleanupAllTables();
+        testDataHelper.createTestUser(2, "likeuser");
+        testDataHelper.createTestUser(3, "otherlikeuser");
+        testDataHelper.createTestUser(4, "thirdlikeuser");
+        Product product = testDataHelper.createTestProduct("Buffered", 10.0, "Test", "likeuser");
+        productId = product.getId();
+    }
+
+    @Test
+    void testToggle_BufferFull_RejectsOnlyNewPairs() {
+        assertTrue(toggle(2L));
+        assertTrue(toggle(3L));
+
+        assertThrows(ServiceUnavailableException.class, () -> toggle(4L));
+        // A pair that is already pending does not grow the buffer.
+        assertFalse(toggle(2L));
+
+        likeBuffer.flush();
+        assertTrue(toggle(4L));
+    }
+
+    @Test
+    void testToggle_FlushCommitsDuringCommittedRead_ReadsAgain() {
+        AtomicBoolean interleaved = new AtomicBoolean();
+        Boolean liked = likeBuffer.toggle(2L, productId, () -> {
+            Boolean committed = userProductMapper.findLikeState(2L, productId);
+            // Another request likes the product and a flush commits it before this toggle reaches the map.
+            if (interleaved.compareAndSet(false, true)) {
+                assertTrue(toggle(2L));
+                likeBuffer.flush();
+            }
+            return committed;
+        });
+
+        assertFalse(liked, "The second toggle of the pair has to undo the first");
+        likeBuffer.flush();
+        assertFalse(userProductMapper.findLikeState(2L, productId));
+    }
+
+    private Boolean toggle(Long userId) {
+        return likeBuffer.toggle(userId, productId, () -> userProductMapper.findLikeState(userId, productId));
+    }
+}
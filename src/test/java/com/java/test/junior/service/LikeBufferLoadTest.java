@@ -0,0 +1,125 @@
+package com.java.test.junior.service;
+
+import com.java.test.junior.BaseIntegrationTest;
+import com.java.test.junior.mapper.UserProductMapper;
+import com.java.test.junior.model.Product;
+import com.java.test.junior.util.TestDataHelper;
+import lombok.extern.java.Log;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares sustained like toggles per second of the synchronous statement with the write-behind buffer,
+ * with every thread hammering the same few products. Run with {@code -DloadTest=true}.
+ */
+@EnabledIfSystemProperty(named = "loadTest", matches = "true")
+@TestPropertySource(properties = "product.likes.write-behind.enabled=true")
+@Log
+class LikeBufferLoadTest extends BaseIntegrationTest {
+    private static final int USERS = 8;
+    private static final int HOT_PRODUCTS = 5;
+    private static final long DURATION_MILLIS = 10_000;
+
+    @Autowired
+    private TestDataHelper testDataHelper;
+    @Autowired
+    private UserProductMapper userProductMapper;
+    @Autowired
+    private LikeBuffer likeBuffer;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<Long> productIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUpTest() {
+        testDataHelper.cleanupAllTables();
+        for (int i = 0; i < USERS; i++) {
+            testDataHelper.createTestUser(i + 2, "loaduser" + i);
+        }
+        productIds.clear();
+        for (int i = 0; i < HOT_PRODUCTS; i++) {
+            Product product = testDataHelper.createTestProduct("Hot " + i, 10.0, "Flash sale", "loaduser0");
+            productIds.add(product.getId());
+        }
+    }
+
+    @Test
+    void testWriteBehind_SustainsMoreTogglesThanSynchronousPath() throws Exception {
+        long synchronous = run((userId, productId) ->
+                userProductMapper.toggle(userId, productId, ThreadLocalRandom.current().nextInt(16)));
+        long syncRate = synchronous * 1000 / DURATION_MILLIS;
+        assertCountsMatchRows();
+
+        long start = System.currentTimeMillis();
+        long buffered = run((userId, productId) ->
+                likeBuffer.toggle(userId, productId, () -> userProductMapper.findLikeState(userId, productId)));
+        while (likeBuffer.size() > 0) {
+            likeBuffer.flush();
+        }
+        // The final flush is part of the cost, so the rate covers the whole window until the data is durable.
+        long bufferedRate = buffered * 1000 / (System.currentTimeMillis() - start);
+        assertCountsMatchRows();
+
+        String rates = "synchronous toggles/sec: " + syncRate + ", write-behind toggles/sec: " + bufferedRate;
+        log.info(rates);
+        assertTrue(bufferedRate > syncRate, rates);
+    }
+
+    private long run(Toggle toggle) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(USERS);
+        try {
+            long deadline = System.currentTimeMillis() + DURATION_MILLIS;
+            List<Future<Long>> workers = new ArrayList<>();
+            for (int i = 0; i < USERS; i++) {
+                long userId = i + 2;
+                workers.add(executor.submit(() -> {
+                    long toggles = 0;
+                    while (System.currentTimeMillis() < deadline) {
+                        toggle.apply(userId, productIds.get(ThreadLocalRandom.current().nextInt(HOT_PRODUCTS)));
+                        toggles++;
+                    }
+                    return toggles;
+                }));
+            }
+            long total = 0;
+            for (Future<Long> worker : workers) {
+                total += worker.get();
+            }
+            return total;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void assertCountsMatchRows() {
+        testDataHelper.foldLikeCounts();
+        Map<Long, Long> rows = new HashMap<>();
+        jdbcTemplate.query("SELECT product_id, count(*) FROM user_product GROUP BY product_id",
+                rs -> {
+                    rows.put(rs.getLong(1), rs.getLong(2));
+                });
+        for (Long productId : productIds) {
+            Long likeCount = jdbcTemplate.queryForObject("SELECT like_count FROM product WHERE id = ?", Long.class,
+                    productId);
+            assertEquals(rows.getOrDefault(productId, 0L), likeCount);
+        }
+    }
+
+    private interface Toggle {
+        void apply(Long userId, Long productId);
+    }
+}
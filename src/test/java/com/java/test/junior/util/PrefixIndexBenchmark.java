@@ -0,0 +1,118 @@
+package com.java.test.junior.util;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lookup latency of {@link PrefixIndex} over a million product names, for the one-letter prefix of the
+ * first keystroke, a three-letter prefix, and a full name. The {@code WithDelta} variant runs against an
+ * index whose delta holds a few thousand recent writes, as it does between compactions. Run the
+ * {@code main} method from the test classpath; it also prints the heap the index retains, the figure
+ * behind the memory per million names below.
+ *
+ * <p>Measured on a single-core machine, JDK 17, compressed oops. A million names of about 25 characters
+ * retain 75.4 MB, 75 bytes per name: 4 for the array slot, the rest is the String and its bytes.</p>
+ * <pre>
+ * Benchmark                                   Mode  Cnt     Score     Error  Units
+ * PrefixIndexBenchmark.firstLetter            avgt    5   610.951 ± 245.588  ns/op
+ * PrefixIndexBenchmark.fullName               avgt    5  5149.816 ± 927.851  ns/op
+ * PrefixIndexBenchmark.threeLetters           avgt    5  1261.836 ± 222.906  ns/op
+ * PrefixIndexBenchmark.threeLettersWithDelta  avgt    5  1776.134 ± 602.204  ns/op
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PrefixIndexBenchmark {
+    private static final int NAMES = 1_000_000;
+    private static final int LIMIT = 10;
+    private static final String[] WORDS = {"apple", "basic", "carbon", "delta", "eco", "field", "garden", "home",
+            "iron", "junior", "kitchen", "lamp", "metal", "nordic", "office", "pro", "quartz", "retro", "steel",
+            "table", "urban", "vintage", "wood", "xl", "yard", "zen"};
+
+    private PrefixIndex index;
+    private PrefixIndex indexWithDelta;
+    private List<String> names;
+
+    @Setup
+    public void setUp() {
+        names = names(NAMES, 42);
+        index = new PrefixIndex(4096);
+        index.rebuild(names);
+        indexWithDelta = new PrefixIndex(4096);
+        indexWithDelta.rebuild(names);
+        indexWithDelta.addAll(names(4000, 7));
+    }
+
+    @Benchmark
+    public List<String> firstLetter() {
+        return index.find(String.valueOf((char) ('a' + ThreadLocalRandom.current().nextInt(26))), LIMIT);
+    }
+
+    @Benchmark
+    public List<String> threeLetters() {
+        return index.find(randomName().substring(0, 3), LIMIT);
+    }
+
+    @Benchmark
+    public List<String> fullName() {
+        return index.find(randomName(), LIMIT);
+    }
+
+    @Benchmark
+    public List<String> threeLettersWithDelta() {
+        return indexWithDelta.find(randomName().substring(0, 3), LIMIT);
+    }
+
+    private String randomName() {
+        return names.get(ThreadLocalRandom.current().nextInt(names.size()));
+    }
+
+    /**
+     * Distinct names of two to three words and a model number, about 25 characters long.
+     */
+    static List<String> names(int count, long seed) {
+        Random random = new Random(seed);
+        List<String> names = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            StringBuilder name = new StringBuilder();
+            int words = 2 + random.nextInt(2);
+            for (int w = 0; w < words; w++) {
+                String word = WORDS[random.nextInt(WORDS.length)];
+                name.append(w == 0 ? Character.toUpperCase(word.charAt(0)) + word.substring(1) : word).append(' ');
+            }
+            names.add(name.append(seed).append('-').append(i).toString());
+        }
+        return names;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        long before = usedHeap();
+        PrefixIndex index = new PrefixIndex(4096);
+        index.rebuild(names(NAMES, 42));
+        long retained = usedHeap() - before;
+        System.out.printf("Index of %d names retains %.1f MB, %d bytes per name including the strings%n",
+                index.size(), retained / 1e6, retained / index.size());
+
+        new Runner(new OptionsBuilder().include(PrefixIndexBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
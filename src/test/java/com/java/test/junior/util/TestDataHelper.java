@@ -5,10 +5,20 @@ import com.java.test.junior.model.Product;
 import com.java.test.junior.model.ProductDTO;
 import com.java.test.junior.model.User;
 import com.java.test.junior.model.UserDTO;
+import com.java.test.junior.security.AuthenticationCache;
+import com.java.test.junior.security.RateLimiter;
+import com.java.test.junior.service.ProductCache;
+import com.java.test.junior.service.EmailDispatcher;
+import com.java.test.junior.service.ImportJobService;
+import com.java.test.junior.service.PasswordResetTokenService;
+import com.java.test.junior.service.ProductCountService;
+import com.java.test.junior.service.ProductLikeService;
 import com.java.test.junior.service.ProductService;
+import com.java.test.junior.service.ProductSuggestService;
 import com.java.test.junior.service.UserService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -18,6 +28,13 @@ import org.springframework.security.authentication.UsernamePasswordAuthenticatio
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
 import java.time.LocalDateTime;
 import java.util.Objects;
 import java.util.UUID;
@@ -29,6 +46,18 @@ public class TestDataHelper {
     private final UserDetailsService userDetailsService;
     private final JdbcTemplate jdbcTemplate;
     private final PasswordEncoder passwordEncoder;
+    private final AuthenticationCache authenticationCache;
+    private final ProductCountService productCountService;
+    private final ProductSuggestService productSuggestService;
+    private final ProductCache productCache;
+    private final ProductLikeService productLikeService;
+    private final PasswordResetTokenService passwordResetTokenService;
+    private final RateLimiter rateLimiter;
+    private final ImportJobService importJobService;
+    private final EmailDispatcher emailDispatcher;
+
+    @Value("${product.import.reject-dir}")
+    private String rejectDirectory;
 
     public Product createTestProduct(String name, Double price, String description, String username) {
         UserDetails userDetails = userDetailsService.loadUserByUsername(username);
@@ -46,14 +75,108 @@ public class TestDataHelper {
 
     public void cleanupAllTables() {
         try {
+            jdbcTemplate.update("DELETE FROM import_job");
+            jdbcTemplate.update("DELETE FROM email_outbox");
+            jdbcTemplate.update("DELETE FROM used_refresh_token");
+            jdbcTemplate.update("DELETE FROM token_revocation");
             jdbcTemplate.update("DELETE FROM user_product");
             jdbcTemplate.update("DELETE FROM product");
             jdbcTemplate.update("DELETE FROM \"user\"");
+            authenticationCache.clear();
+            rateLimiter.clear();
+            productCountService.clear();
+            productCache.clear();
+            productSuggestService.rebuild();
+            productLikeService.rebuild();
         } catch (Exception e) {
             System.err.println("Failed to clean up database: " + e.getMessage());
         }
     }
 
+    public void foldLikeCounts() {
+        productLikeService.fold();
+    }
+
+    public void backdateProduct(Long id, int seconds) {
+        jdbcTemplate.update("UPDATE product SET updated_at = updated_at - make_interval(secs => ?) WHERE id = ?",
+                seconds, id);
+        productCache.evict(id);
+    }
+
+    public long purgeExpiredPasswordResetTokens() {
+        return passwordResetTokenService.purgeExpired();
+    }
+
+    public Long createImportJob(String status, int secondsSinceUpdate) {
+        return jdbcTemplate.queryForObject("INSERT INTO import_job (source, mode, status, max_errors, updated_at) " +
+                "VALUES ('test.csv', 'insert', ?, 0, NOW() - make_interval(secs => ?)) RETURNING id", Long.class,
+                status, secondsSinceUpdate);
+    }
+
+    /**
+     * Blocks every write into product until the returned connection is closed, which rolls back its lock.
+     */
+    public Connection lockProductTable() throws SQLException {
+        Connection connection = Objects.requireNonNull(jdbcTemplate.getDataSource()).getConnection();
+        connection.setAutoCommit(false);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("LOCK TABLE product IN SHARE MODE");
+        }
+        return connection;
+    }
+
+    public boolean isProductInsertWaitingOnLock() {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT EXISTS (SELECT 1 FROM pg_stat_activity " +
+                "WHERE wait_event_type = 'Lock' AND query LIKE '%INSERT INTO product%')", Boolean.class));
+    }
+
+    public int countProducts() {
+        Integer count = jdbcTemplate.queryForObject("SELECT count(*) FROM product", Integer.class);
+        return count != null ? count : 0;
+    }
+
+    public void failExpiredImportJobs() {
+        importJobService.failExpired();
+    }
+
+    public void expireImportRejects(long jobId) throws IOException {
+        Files.setLastModifiedTime(Paths.get(rejectDirectory, "import-job-" + jobId + "-rejects.csv"),
+                FileTime.fromMillis(0));
+    }
+
+    public void purgeImportRejectFiles() throws IOException {
+        importJobService.purgeRejectFiles();
+    }
+
+    public int findEmailAttempts(String recipient) {
+        Integer attempts = jdbcTemplate.queryForObject(
+                "SELECT COALESCE(max(attempts), 0) FROM email_outbox WHERE recipient = ?", Integer.class, recipient);
+        return attempts != null ? attempts : 0;
+    }
+
+    public boolean isEmailSentAndRedacted(String recipient) {
+        Integer redacted = jdbcTemplate.queryForObject("SELECT count(*) FROM email_outbox " +
+                "WHERE recipient = ? AND status = 'SENT' AND body IS NULL", Integer.class, recipient);
+        return redacted != null && redacted > 0;
+    }
+
+    public void createOutboxEmail(String recipient, String status, int hoursOld) {
+        // Not due, so the dispatcher leaves pending ones alone.
+        jdbcTemplate.update("INSERT INTO email_outbox (recipient, subject, body, status, next_attempt_at, created_at) " +
+                "VALUES (?, 'Test', 'Test', ?, NOW() + INTERVAL '1 day', NOW() - make_interval(hours => ?))",
+                recipient, status, hoursOld);
+    }
+
+    public int countOutboxEmails(String recipient) {
+        Integer count = jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM email_outbox WHERE recipient = ?", Integer.class, recipient);
+        return count != null ? count : 0;
+    }
+
+    public void purgeFinishedEmails() {
+        emailDispatcher.purgeFinished();
+    }
+
     public void createAdminUser() {
         String password = passwordEncoder.encode("123456");
         jdbcTemplate.update(